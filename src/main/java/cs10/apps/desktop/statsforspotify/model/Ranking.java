@@ -1,12 +1,25 @@
 package cs10.apps.desktop.statsforspotify.model;
 
 import cs10.apps.web.statsforspotify.model.CustomList;
+import cs10.apps.web.statsforspotify.model.IntMap;
+import cs10.apps.web.statsforspotify.model.SymbolTable;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
-
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Songs in chart order, indexed by id symbol. The index keeps the songs, not
+ * their positions, so it's still valid after sorting by change. It also
+ * counts how many times the list has each id, so an id leaves the index
+ * when its count gets to 0 without looking at the list, and the bulk
+ * removals build the index again.
+ */
 public class Ranking extends CustomList<Song> {
+    private final IntMap<IndexEntry> songsById = new IntMap<>();
     private String title;
 
     public String getTitle() {
@@ -66,12 +79,149 @@ public class Ranking extends CustomList<Song> {
     }
 
     public Song getSong(String id){
-        for (Song s : this){
-            if (s.getId().equals(id)){
-                return s;
+        return getSong(SymbolTable.TRACKS.lookup(id));
+    }
+
+    public Song getSong(int idSymbol){
+        IndexEntry entry = songsById.get(idSymbol);
+        return entry == null ? null : entry.song;
+    }
+
+    public boolean contains(String id){
+        return songsById.containsKey(SymbolTable.TRACKS.lookup(id));
+    }
+
+    public boolean contains(int idSymbol){
+        return songsById.containsKey(idSymbol);
+    }
+
+    @Override
+    public boolean add(Song song) {
+        index(song);
+        return super.add(song);
+    }
+
+    @Override
+    public void add(int index, Song song) {
+        index(song);
+        super.add(index, song);
+    }
+
+    // one by one, so the subclasses see every song in add()
+    @Override
+    public boolean addAll(Collection<? extends Song> c) {
+        for (Song s : c) add(s);
+        return !c.isEmpty();
+    }
+
+    @Override
+    public Song set(int index, Song song) {
+        Song previous = super.set(index, song);
+        // a swap (like the ones of Collections.shuffle) has it twice for a moment
+        index(song);
+        unindex(previous);
+        return previous;
+    }
+
+    @Override
+    public Song remove(int index) {
+        Song removed = super.remove(index);
+        unindex(removed);
+        return removed;
+    }
+
+    // the song removed may be another one equal to o (same name and artists)
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Song> filter) {
+        return reindex(super.removeIf(filter));
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return reindex(super.removeAll(c));
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return reindex(super.retainAll(c));
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Song> operator) {
+        super.replaceAll(operator);
+        reindex(true);
+    }
+
+    // also used by subList().clear()
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        super.removeRange(fromIndex, toIndex);
+        reindex(true);
+    }
+
+    // a song without id is in the list, but it can't be found by id
+    private void index(Song song){
+        int idSymbol = song.getIdSymbol();
+        if (idSymbol == SymbolTable.NONE) return;
+
+        IndexEntry entry = songsById.get(idSymbol);
+        if (entry == null) songsById.put(idSymbol, new IndexEntry(song));
+        else {
+            entry.count++;
+            if (entry.song == song) entry.copies++;
+        }
+    }
+
+    // called when the list doesn't have the song anymore (or has one less)
+    private void unindex(Song song){
+        int idSymbol = song.getIdSymbol();
+        if (idSymbol == SymbolTable.NONE) return;
+
+        IndexEntry entry = songsById.get(idSymbol);
+        if (entry == null) return;
+
+        if (--entry.count == 0) songsById.remove(idSymbol);
+        else if (entry.song == song && --entry.copies == 0){
+            // another song with the same id is left, only then the list is read
+            entry.song = null;
+            for (Song s : this) if (s.getIdSymbol() == idSymbol){
+                if (entry.song == null) entry.song = s;
+                if (entry.song == s) entry.copies++;
             }
         }
+    }
+
+    private boolean reindex(boolean changed){
+        if (changed){
+            songsById.clear();
+            for (Song s : this) index(s);
+        }
+
+        return changed;
+    }
 
-        return null;
+    @Override
+    public void clear() {
+        songsById.clear();
+        super.clear();
+    }
+
+    private static class IndexEntry {
+        private Song song;
+
+        // songs of the list with the id, and how many of them are this song
+        private int count = 1, copies = 1;
+
+        private IndexEntry(Song song){
+            this.song = song;
+        }
     }
 }
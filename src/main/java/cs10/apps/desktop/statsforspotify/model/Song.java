@@ -3,12 +3,14 @@ package cs10.apps.desktop.statsforspotify.model;
 import com.wrapper.spotify.model_objects.specification.Track;
 import cs10.apps.web.statsforspotify.io.SongFile;
 import cs10.apps.web.statsforspotify.model.PopularityStatus;
+import cs10.apps.web.statsforspotify.model.SymbolTable;
 import cs10.apps.web.statsforspotify.utils.CommonUtils;
 
 import java.text.DecimalFormat;
 
 public class Song implements Comparable<Song> {
-    private String name, artists, infoStatus, imageUrl, id;
+    private String name, artists, infoStatus, imageUrl, id, mainArtist;
+    private int idSymbol = SymbolTable.NONE;
     private SongFile songFile;
 
     // status is necessary for the new ones
@@ -93,11 +95,13 @@ public class Song implements Comparable<Song> {
     }
 
     public String getMainArtist(){
-        return artists.split(", ")[0];
+        if (mainArtist == null) mainArtist = artists.split(", ")[0];
+        return mainArtist;
     }
 
     public void setArtists(String artists) {
         this.artists = artists;
+        this.mainArtist = null;
     }
 
     public long getTimestamp() {
@@ -122,6 +126,16 @@ public class Song implements Comparable<Song> {
 
     public void setId(String id) {
         this.id = id;
+        this.idSymbol = SymbolTable.NONE;
+    }
+
+    /**
+     * @return the id interned in {@link SymbolTable#TRACKS}, or NONE if the
+     * song has no id
+     */
+    public int getIdSymbol(){
+        if (idSymbol == SymbolTable.NONE && id != null) idSymbol = SymbolTable.TRACKS.intern(id);
+        return idSymbol;
     }
 
     public int getPopularity() {
@@ -133,7 +147,7 @@ public class Song implements Comparable<Song> {
     }
 
     public PopularityStatus getPopularityStatus(){
-        int comparative = songFile.getMediumAppearance().getPopularity();
+        int comparative = songFile.getPopularity(songFile.getMediumIndex());
 
         if (comparative == popularity) return PopularityStatus.NORMAL;
         else if (comparative > popularity) return PopularityStatus.DECREASING;
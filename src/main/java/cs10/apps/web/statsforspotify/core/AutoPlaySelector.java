@@ -11,6 +11,8 @@ import cs10.apps.web.statsforspotify.io.Library;
 import cs10.apps.web.statsforspotify.io.SongAppearance;
 import cs10.apps.web.statsforspotify.io.SongFile;
 import cs10.apps.web.statsforspotify.model.CustomList;
+import cs10.apps.web.statsforspotify.model.IntSet;
+import cs10.apps.web.statsforspotify.model.SymbolTable;
 import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
 import cs10.apps.web.statsforspotify.service.AutoPlayService;
 import cs10.apps.web.statsforspotify.utils.ApiUtils;
@@ -32,8 +34,8 @@ public class AutoPlaySelector {
     private final List<Integer> magicNumbers;
     private ScheduledExecutorService service;
     private final AutoPlayService.AutoPlayRunnable runnable;
-    private final Set<String> ids = new HashSet<>();
-    private final Set<String> recentIds = new HashSet<>();
+    private final IntSet ids = new IntSet();
+    private final IntSet recentIds = new IntSet();
     private final Set<String> names = new HashSet<>();
     private final Queue<String> pendingIds = new LinkedList<>();
     private static final int MAX_ITERATIONS = 64;
@@ -60,7 +62,7 @@ public class AutoPlaySelector {
         }
 
         PlayHistory[] ph = apiUtils.getRecentTracks();
-        for (PlayHistory p : ph) ids.add(p.getTrack().getId());
+        for (PlayHistory p : ph) ids.add(SymbolTable.TRACKS.intern(p.getTrack().getId()));
         recentIds.addAll(ids);
     }
 
@@ -93,7 +95,9 @@ public class AutoPlaySelector {
                 run2(false);
             }
             ids.removeAll(recentIds);
-            apiUtils.createPlaylist("AutoPlay " + ranking.getCode(), ids);
+            Set<String> trackIds = new LinkedHashSet<>();
+            for (int symbol : ids.toArray()) trackIds.add(SymbolTable.TRACKS.getName(symbol));
+            apiUtils.createPlaylist("AutoPlay " + ranking.getCode(), trackIds);
         }, "Creating AutoPlay Playlist").start();
     }
 
@@ -125,19 +129,18 @@ public class AutoPlaySelector {
             }
 
             for (String s : relationIds) {
-                if (!ids.contains(s)) {
+                if (!ids.contains(SymbolTable.TRACKS.lookup(s))) {
                     try {
                         Track t = apiUtils.getTrackByID(s);
                         String artistName = t.getArtists()[0].getName();
 
                         if (apiUtils.getRankingImprover().isArtistBlocked(artistName)){
                             System.err.println(artistName + " is blocked by ranking improver");
-                            ids.addAll(apiUtils.autoQueue(ranking, apiUtils.getRankingImprover().getTargetTrack(), queue));
+                            addIds(apiUtils.autoQueue(ranking, apiUtils.getRankingImprover().getTargetTrack(), queue));
                             return;
                         }
 
-                        ArtistDirectory a = library.getArtistByName(artistName);
-                        SongFile songFile = (a == null ? null : a.getSongById(t.getId()));
+                        SongFile songFile = library.findById(t.getId());
                         if (!names.contains(t.getName()) && !isBecomingVeryUnpopular(songFile, t.getPopularity())) queue(t.getName(), s);
                     } catch (Exception e){
                         Maintenance.writeErrorFile(e, true);
@@ -156,16 +159,21 @@ public class AutoPlaySelector {
 
     private void queue(String name, String id){
         names.add(name);
-        ids.add(id);
+        ids.add(SymbolTable.TRACKS.intern(id));
         pendingIds.add(id);
     }
 
+    private void addIds(Collection<String> trackIds){
+        for (String id : trackIds) ids.add(SymbolTable.TRACKS.intern(id));
+    }
+
     private void runSimplified(boolean queue){
         List<PlaylistTrack> dailyMix = data.getRandomElement();
         Track selectedTrack = (Track) dailyMix.get(itemIndex++).getTrack();
         if (itemIndex == 50) shutdown();
 
-        if (ids.contains(selectedTrack.getId()) || names.contains(selectedTrack.getName())) return;
+        int idSymbol = SymbolTable.TRACKS.intern(selectedTrack.getId());
+        if (ids.contains(idSymbol) || names.contains(selectedTrack.getName())) return;
         boolean condition1 = isArtistSaved(selectedTrack.getArtists()[0].getName());
         boolean condition2 = isGoodPopularity(selectedTrack.getPopularity());
         boolean condition3 = !apiUtils.getRankingImprover().isPopularityBlocked(selectedTrack.getPopularity());
@@ -174,9 +182,9 @@ public class AutoPlaySelector {
         if (condition3 && condition4) {
             System.out.println(selectedTrack.getName() + " queued from Daily Mixes");
             names.add(selectedTrack.getName());
-            ids.add(selectedTrack.getId());
+            ids.add(idSymbol);
             if (queue) apiUtils.playThis(selectedTrack.getId(), false);
-        } else ids.addAll(apiUtils.autoQueue(ranking, selectedTrack, queue));
+        } else addIds(apiUtils.autoQueue(ranking, selectedTrack, queue));
     }
 
     private boolean isArtistSaved(String artistName){
@@ -203,7 +211,7 @@ public class AutoPlaySelector {
 
     private boolean isBecomingVeryUnpopular(SongFile songFile, int popularity){
         if (songFile == null) return false;
-        return songFile.getMediumAppearance().getPopularity() > popularity + 8;
+        return songFile.getPopularity(songFile.getMediumIndex()) > popularity + 8;
     }
 
 }
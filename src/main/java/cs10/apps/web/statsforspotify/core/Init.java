@@ -2,7 +2,10 @@ package cs10.apps.web.statsforspotify.core;
 
 import com.wrapper.spotify.model_objects.specification.Track;
 import cs10.apps.web.statsforspotify.io.Library;
+import cs10.apps.web.statsforspotify.io.RankingCatalog;
 import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.model.ranking.RankingDiff;
+import cs10.apps.web.statsforspotify.model.ranking.SimpleRanking;
 import cs10.apps.web.statsforspotify.model.TopTerms;
 import cs10.apps.web.statsforspotify.utils.ApiUtils;
 import cs10.apps.web.statsforspotify.utils.CommonUtils;
@@ -62,20 +65,27 @@ public class Init {
             }
         }
 
-        if (actualCode > 0 && actualCode != savedCodes[1]){
-            IOUtils.updateRankingCodes(savedCodes[1], actualCode, userId);
-            IOUtils.save(apiRanking, true);
-            library.update(apiRanking);
-            showSummary = true;
+        // the same tracks in the same order as the last saved ranking
+        SimpleRanking lastSaved = RankingCatalog.getInstance().get(savedCodes[1]);
+        boolean unchanged = lastSaved != null && lastSaved.getFingerprint() == apiRanking.getFingerprint();
+
+        if (actualCode > 0 && !unchanged){
+            // the codes stay as they were until the ranking is saved
+            if (library.ingest(apiRanking)){
+                IOUtils.updateRankingCodes(savedCodes[1], apiRanking.getCode(), userId);
+                showSummary = true;
+            }
         } else library.relink(apiRanking);
 
+        library.prefetch(apiRanking);
+
         //new Thread(() -> ).start();
         diskRanking = getLastRankingFromDisk();
-        apiRanking.updateAllStatus(diskRanking);
+        RankingDiff diff = apiRanking.updateAllStatus(diskRanking);
         library.analyze();
 
         if (showSummary) new Thread(() ->
-                CommonUtils.summary(apiRanking, diskRanking, apiUtils),
+                CommonUtils.summary(diff, apiUtils),
                 "Summary of New Ranking").start();
 
         System.out.println("Init -- " + (System.currentTimeMillis() - startTime) + " ms");
@@ -3,22 +3,29 @@ package cs10.apps.web.statsforspotify.core;
 import com.wrapper.spotify.model_objects.specification.Track;
 import cs10.apps.desktop.statsforspotify.model.Song;
 import cs10.apps.desktop.statsforspotify.model.Status;
+import cs10.apps.web.statsforspotify.model.IntSet;
+import cs10.apps.web.statsforspotify.model.SymbolTable;
 
 import java.util.HashSet;
 import java.util.Set;
 
 public class RankingImprover {
     private final Set<Track> blockedTracks = new HashSet<>();
+    private final IntSet blockedIds = new IntSet();
+    private final IntSet blockedArtists = new IntSet();
     private Track targetTrack;
 
     public void addBlockedTracks(Track[] result){
-        blockedTracks.add(result[result.length-2]);
-        blockedTracks.add(result[result.length-3]);
-        blockedTracks.add(result[result.length-4]);
-        blockedTracks.add(result[result.length-5]);
+        for (int i=2; i<=5; i++) block(result[result.length-i]);
         targetTrack = result[result.length-1];
     }
 
+    private void block(Track t){
+        blockedTracks.add(t);
+        blockedIds.add(SymbolTable.TRACKS.intern(t.getId()));
+        blockedArtists.add(SymbolTable.ARTISTS.intern(t.getArtists()[0].getName()));
+    }
+
     public boolean isPopularityBlocked(int popularity){
         for (Track t : blockedTracks){
             if (Math.abs(popularity - t.getPopularity()) < 2)
@@ -33,7 +40,7 @@ public class RankingImprover {
     }
 
     public void analyze(Song song){
-        if (isTrackBlocked(song.getId())){
+        if (isTrackBlocked(song.getIdSymbol())){
             if (song.getRank() < 16 && removeTrack(song.getId()))
                 System.out.println(song + " removed from Blocked Tracks");
             else song.setStatus(Status.LEFT);
@@ -41,23 +48,24 @@ public class RankingImprover {
     }
 
     public boolean removeTrack(String trackId){
-        return blockedTracks.removeIf(t -> t.getId().equals(trackId));
+        if (!blockedIds.remove(SymbolTable.TRACKS.lookup(trackId))) return false;
+        blockedTracks.removeIf(t -> t.getId().equals(trackId));
+
+        // the artist stays blocked if another of their tracks is
+        blockedArtists.clear();
+        for (Track t : blockedTracks) blockedArtists.add(SymbolTable.ARTISTS.intern(t.getArtists()[0].getName()));
+        return true;
     }
 
     public boolean isTrackBlocked(String trackId){
-        for (Track t : blockedTracks){
-            if (t.getId().equals(trackId)) return true;
-        }
+        return isTrackBlocked(SymbolTable.TRACKS.lookup(trackId));
+    }
 
-        return false;
+    public boolean isTrackBlocked(int idSymbol){
+        return blockedIds.contains(idSymbol);
     }
 
     public boolean isArtistBlocked(String artistName){
-        for (Track t : blockedTracks){
-            if (t.getArtists()[0].getName().equals(artistName))
-                return true;
-        }
-
-        return false;
+        return blockedArtists.contains(SymbolTable.ARTISTS.lookup(artistName));
     }
 }
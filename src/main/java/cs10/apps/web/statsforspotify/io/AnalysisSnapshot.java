@@ -0,0 +1,128 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Derived state of the last analysis (peak and popularity sums of each song,
+ * score and averages of each artist), keyed by the last ranking code and the
+ * length of the appearance log. When no ranking arrived since it was written,
+ * restoring it leaves nothing to analyze. Otherwise only the songs with new
+ * appearances are analyzed.
+ */
+public class AnalysisSnapshot {
+    private static final String FILENAME = "analysis.snap";
+    private static final int MAGIC = 0x534E4150;
+    private static final int SONG_SIZE = 16 + 20 * 4, ARTIST_SIZE = 16 + 10 * 4;
+
+    private final File file;
+
+    public AnalysisSnapshot(File directory){
+        this.file = new File(directory, FILENAME);
+    }
+
+    /**
+     * Restores the snapshot into the views. A corrupted snapshot, or one written
+     * with a longer log or an unknown ranking (e.g. before a ranking was
+     * recovered) is ignored.
+     *
+     * @return true if it was restored
+     */
+    public boolean restore(List<SongFile> songs, List<ArtistDirectory> artists, long currentLogLength) throws IOException {
+        if (!file.exists()) return false;
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        if (data.length < 8 + 8) return false;
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 8);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getLong(data.length - 8) != crc.getValue() || buffer.getInt() != MAGIC){
+            System.err.println(file.getPath() + " is corrupted. Ignoring");
+            return false;
+        }
+
+        long code = buffer.getLong();
+        long length = buffer.getLong();
+        if (length > currentLogLength || (code != 0 && !RankingCatalog.getInstance().contains(code))) return false;
+
+        int songCount = buffer.getInt();
+        for (int i=0; i<songCount; i++){
+            int handle = buffer.getInt();
+            int analyzedCount = buffer.getInt();
+            SongPeak peak = new SongPeak(buffer.getShort(), buffer.getInt(), buffer.getShort());
+            float[] sums = new float[20];
+            for (int j=0; j<sums.length; j++) sums[j] = buffer.getFloat();
+
+            SongFile sf = handle < songs.size() ? songs.get(handle) : null;
+            if (sf != null && analyzedCount <= sf.getAppearancesCount())
+                sf.restoreAnalysis(peak, sums, analyzedCount);
+        }
+
+        int artistCount = buffer.getInt();
+        for (int i=0; i<artistCount; i++){
+            int handle = buffer.getInt();
+            float scoreSum = buffer.getFloat();
+            float averagePeak = buffer.getFloat();
+            float averagePopularity = buffer.getFloat();
+            float[] sums = new float[10];
+            for (int j=0; j<sums.length; j++) sums[j] = buffer.getFloat();
+
+            if (handle < artists.size())
+                artists.get(handle).restoreAnalysis(scoreSum, averagePeak, averagePopularity, sums);
+        }
+
+        Maintenance.log("Analysis restored up to ranking " + code);
+        return true;
+    }
+
+    /**
+     * Writes the analyzed views to a temporary file and then replaces the
+     * snapshot with it, so a half written snapshot is never read
+     */
+    public void save(List<SongFile> songs, List<ArtistDirectory> artists, long lastCode, long logLength) throws IOException {
+        int songCount = 0, artistCount = 0;
+        for (SongFile sf : songs) if (sf != null && sf.isAnalyzed()) songCount++;
+        for (ArtistDirectory a : artists) if (a.isAnalyzed()) artistCount++;
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 16 + 4 + songCount * SONG_SIZE + 4 + artistCount * ARTIST_SIZE + 8);
+        buffer.putInt(MAGIC);
+        buffer.putLong(lastCode);
+        buffer.putLong(logLength);
+
+        buffer.putInt(songCount);
+        for (SongFile sf : songs){
+            if (sf == null || !sf.isAnalyzed()) continue;
+            buffer.putInt(sf.getHandle());
+            buffer.putInt(sf.getAnalyzedCount());
+            buffer.putShort((short) sf.getPeak().getChartPosition());
+            buffer.putInt(sf.getPeak().getRankingCode());
+            buffer.putShort((short) sf.getPeak().getTimes());
+            for (float f : sf.getPopularitySumByRank()) buffer.putFloat(f);
+        }
+
+        buffer.putInt(artistCount);
+        for (ArtistDirectory a : artists){
+            if (!a.isAnalyzed()) continue;
+            buffer.putInt(a.getHandle());
+            buffer.putFloat(a.getScoreSum());
+            buffer.putFloat(a.getAveragePeak());
+            buffer.putFloat(a.getAveragePopularity());
+            for (float f : a.getPopularitySumByRank()) buffer.putFloat(f);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+
+        File temp = new File(file.getPath() + ".tmp");
+        Files.write(temp.toPath(), buffer.array());
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
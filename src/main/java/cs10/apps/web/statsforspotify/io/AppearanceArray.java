@@ -0,0 +1,67 @@
+package cs10.apps.web.statsforspotify.io;
+
+import java.util.Arrays;
+
+/**
+ * Appearances of one song, one primitive array per column. Positions fit in
+ * a short and popularities in a byte, so an appearance takes 7 bytes
+ * instead of a {@link SongAppearance} and the reference to it.
+ */
+class AppearanceArray {
+    private static final short[] NO_POSITIONS = new short[0];
+    private static final byte[] NO_POPULARITIES = new byte[0];
+    private static final int[] NO_CODES = new int[0];
+
+    private short[] positions = NO_POSITIONS;
+    private byte[] popularities = NO_POPULARITIES;
+    private int[] codes = NO_CODES;
+    private int size;
+
+    AppearanceArray(){ }
+
+    AppearanceArray(int capacity){
+        if (capacity > 0) resize(capacity);
+    }
+
+    void add(int chartPosition, int popularity, int rankingCode){
+        if (size == codes.length) resize(Math.max(4, size + (size >> 1)));
+        positions[size] = (short) chartPosition;
+        popularities[size] = (byte) popularity;
+        codes[size] = rankingCode;
+        size++;
+    }
+
+    void addAll(AppearanceArray other){
+        if (size + other.size > codes.length) resize(size + other.size);
+        System.arraycopy(other.positions, 0, positions, size, other.size);
+        System.arraycopy(other.popularities, 0, popularities, size, other.size);
+        System.arraycopy(other.codes, 0, codes, size, other.size);
+        size += other.size;
+    }
+
+    private void resize(int capacity){
+        positions = Arrays.copyOf(positions, capacity);
+        popularities = Arrays.copyOf(popularities, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+    }
+
+    int size(){
+        return size;
+    }
+
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    int getChartPosition(int index){
+        return positions[index];
+    }
+
+    int getPopularity(int index){
+        return popularities[index];
+    }
+
+    int getRankingCode(int index){
+        return codes[index];
+    }
+}
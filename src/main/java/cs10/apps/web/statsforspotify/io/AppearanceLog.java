@@ -0,0 +1,230 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log with every song appearance of the library, split in segments
+ * of fixed size. Each record is a track handle (see {@link TrackTable}),
+ * the chart position, the popularity and the ranking code.
+ */
+public class AppearanceLog {
+    public static final int RECORD_SIZE = 12;
+    private static final int SEGMENT_RECORDS = 1 << 18;
+    private static final String PREFIX = "appearances-", SUFFIX = ".seg";
+
+    private final File directory;
+    private int segmentCount;
+    private long lastSegmentRecords;
+
+    public interface Reader {
+        void onAppearance(int trackHandle, int chartPosition, int popularity, int rankingCode);
+    }
+
+    /**
+     * Records of one ranking (or one import step), written together
+     */
+    public static class Batch {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final DataOutputStream writer = new DataOutputStream(buffer);
+
+        public void add(int trackHandle, int chartPosition, int popularity, long rankingCode){
+            try {
+                writer.writeInt(trackHandle);
+                writer.writeShort(chartPosition);
+                writer.writeShort(popularity);
+                writer.writeInt((int) rankingCode);
+            } catch (IOException e){
+                // never thrown by a ByteArrayOutputStream
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public int size(){
+            return buffer.size() / RECORD_SIZE;
+        }
+
+        private byte[] toByteArray(){
+            return buffer.toByteArray();
+        }
+    }
+
+    public AppearanceLog(File directory){
+        this.directory = directory;
+    }
+
+    /**
+     * Counts the segments. A partial record at the end of the last one
+     * (the app died while writing it) is cut.
+     */
+    public void open() throws IOException {
+        segmentCount = 0;
+        lastSegmentRecords = 0;
+
+        // the first segments may have been deleted (see HistoryFile)
+        String[] names = directory.list((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (names != null) for (String name : names){
+            try {
+                int index = Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                segmentCount = Math.max(segmentCount, index + 1);
+            } catch (NumberFormatException e){
+                System.err.println(name + " is not a segment of the log");
+            }
+        }
+
+        if (segmentCount > 0){
+            File last = getSegment(segmentCount - 1);
+            try (FileChannel channel = FileChannel.open(last.toPath(), StandardOpenOption.WRITE)){
+                long size = channel.size();
+                if (size % RECORD_SIZE != 0){
+                    System.err.println(last.getPath() + " ends with an incomplete record");
+                    channel.truncate(size - size % RECORD_SIZE);
+                }
+
+                lastSegmentRecords = channel.size() / RECORD_SIZE;
+            }
+        }
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * @return total records in the log
+     */
+    public long getLength(){
+        if (segmentCount == 0) return 0;
+        return (long) (segmentCount - 1) * SEGMENT_RECORDS + lastSegmentRecords;
+    }
+
+    /**
+     * Deletes the segments with only records before the given one. The
+     * segment with the record before it is kept, so the log can still be
+     * cut back to there and the length is still known.
+     */
+    public void deleteSegmentsBefore(long record) throws IOException {
+        int last = Math.min(getSegmentIndex(Math.max(0, record - 1)), segmentCount - 1);
+
+        int deleted = 0;
+        for (int i=0; i<last; i++){
+            if (Files.deleteIfExists(getSegment(i).toPath())) deleted++;
+        }
+
+        if (deleted > 0) Maintenance.log(deleted + " segments of the appearance log compacted");
+    }
+
+    /**
+     * Cuts the log to the given amount of records, removing the segments
+     * that are left empty
+     */
+    public void truncate(long records) throws IOException {
+        open();
+        int keep = (int) ((records + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+
+        for (int i=segmentCount-1; i>=keep; i--){
+            Files.deleteIfExists(getSegment(i).toPath());
+        }
+
+        if (keep > 0){
+            long lastRecords = records - (long) (keep - 1) * SEGMENT_RECORDS;
+            try (FileChannel channel = FileChannel.open(getSegment(keep - 1).toPath(), StandardOpenOption.WRITE)){
+                if (channel.size() > lastRecords * RECORD_SIZE) channel.truncate(lastRecords * RECORD_SIZE);
+            }
+        }
+
+        open();
+    }
+
+    /**
+     * Reads every record since the given one until the end of the log
+     */
+    public void read(long fromRecord, Reader reader) throws IOException {
+        for (int i=getSegmentIndex(fromRecord); i<segmentCount; i++){
+            readSegment(i, fromRecord, reader);
+        }
+    }
+
+    public int getSegmentIndex(long record){
+        return (int) (record / SEGMENT_RECORDS);
+    }
+
+    /**
+     * Reads the records of the segment since the given record of the log
+     */
+    public void readSegment(int index, long fromRecord, Reader reader) throws IOException {
+        fromRecord = Math.max(0, fromRecord - (long) index * SEGMENT_RECORDS);
+
+        try (FileChannel channel = FileChannel.open(getSegment(index).toPath(), StandardOpenOption.READ)){
+            long records = channel.size() / RECORD_SIZE;
+            if (fromRecord >= records) return;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    fromRecord * RECORD_SIZE, (records - fromRecord) * RECORD_SIZE);
+
+            for (long i=fromRecord; i<records; i++){
+                int trackHandle = buffer.getInt();
+                int chartPosition = buffer.getShort();
+                int popularity = buffer.getShort();
+                int rankingCode = buffer.getInt();
+                reader.onAppearance(trackHandle, chartPosition, popularity, rankingCode);
+            }
+        }
+    }
+
+    /**
+     * Writes the batch sequentially at the end of the log. A new segment is
+     * started only when the current one is full.
+     */
+    public void append(Batch batch) throws IOException {
+        if (batch.size() == 0) return;
+        if (!directory.exists() && directory.mkdirs())
+            System.out.println(directory.getPath() + " created");
+
+        ByteBuffer data = ByteBuffer.wrap(batch.toByteArray());
+
+        while (data.hasRemaining()){
+            if (segmentCount == 0 || lastSegmentRecords == SEGMENT_RECORDS){
+                segmentCount++;
+                lastSegmentRecords = 0;
+            }
+
+            int records = (int) Math.min(data.remaining() / RECORD_SIZE, SEGMENT_RECORDS - lastSegmentRecords);
+            ByteBuffer slice = data.slice();
+            slice.limit(records * RECORD_SIZE);
+
+            try (FileChannel channel = FileChannel.open(getSegment(segmentCount - 1).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+                while (slice.hasRemaining()) channel.write(slice);
+            }
+
+            data.position(data.position() + records * RECORD_SIZE);
+            lastSegmentRecords += records;
+        }
+    }
+
+    /**
+     * Syncs the segments with the records since the given one
+     */
+    public void force(long fromRecord) throws IOException {
+        for (int i=getSegmentIndex(fromRecord); i<segmentCount; i++){
+            try (FileChannel channel = FileChannel.open(getSegment(i).toPath(), StandardOpenOption.WRITE)){
+                channel.force(true);
+            }
+        }
+    }
+
+    private File getSegment(int index){
+        return new File(directory, PREFIX + String.format("%04d", index) + SUFFIX);
+    }
+}
@@ -1,77 +1,174 @@
 package cs10.apps.web.statsforspotify.io;
 
 import cs10.apps.web.statsforspotify.model.CustomList;
+import cs10.apps.web.statsforspotify.model.IntMap;
+import cs10.apps.web.statsforspotify.model.SymbolTable;
+import cs10.apps.web.statsforspotify.model.WeightedSampler;
 
-import java.io.File;
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * View of the tracks of one artist in the {@link AppearanceLog}
+ */
 public class ArtistDirectory implements Comparable<ArtistDirectory> {
-    private CustomList<SongFile> songFiles;
-    private final File file;
+    private final CustomList<SongFile> songFiles;
+    private final IntMap<SongFile> songsById = new IntMap<>(4);
+    private final String artistName;
+    private final int handle;
 
-    private float artistScore, averagePopularity, averagePeak;
+    private float scoreSum, peakSum, popularitySum, scoreBonus, scoreFactor = 1;
     private float[] popularitySumByRank;
     private final int rankingsAmount;
-    private int rank;
+    private ArtistLeaderboard leaderboard;
+    private WeightedSampler artistSampler, songSampler;
+    private ToDoubleFunction<SongFile> songWeight;
 
-    public ArtistDirectory(File file, int rankingsAmount){
+    public ArtistDirectory(int handle, String artistName, int rankingsAmount){
+        this.handle = handle;
+        this.artistName = artistName;
         this.rankingsAmount = rankingsAmount;
-        this.file = file;
-        this.explore();
+        this.songFiles = new CustomList<>();
     }
 
-    public static File makeDirectory(File parentFolder, String artistName){
-        artistName = artistName.replace("/\\","");
-        File f = new File(parentFolder, artistName);
-        System.out.println(f.getPath() + " created: " + f.mkdirs());
-        return f;
+    public synchronized void addSongFile(SongFile songFile){
+        songFile.setArtistIndex(songFiles.size());
+        songFiles.add(songFile);
+        songsById.put(SymbolTable.TRACKS.intern(songFile.getTrackId()), songFile);
+        if (songSampler != null) songSampler.add(getSongWeight(songFile));
     }
 
-    public void addSongFile(SongFile songFile){
-        songFiles.add(songFile);
+    // a song is added before its first appearance, it gets its weight with it
+    private double getSongWeight(SongFile songFile){
+        return songFile.getAppearancesCount() == 0 ? 0 : songWeight.applyAsDouble(songFile);
     }
 
-    private void explore(){
-        songFiles = new CustomList<>();
+    /**
+     * Analyzes only the songs with new appearances. If there are none, the
+     * values restored from the snapshot are kept.
+     *
+     * @return true if something was analyzed
+     */
+    public boolean analyzeSongs(){
+        boolean changed = popularitySumByRank == null;
 
-        File[] filesInsideDirectory = file.listFiles();
-        if (filesInsideDirectory != null){
-            for (File f : filesInsideDirectory){
-                SongFile songFile = new SongFile(f, this);
-                songFiles.add(songFile);
+        for (SongFile f : songFiles){
+            if (!f.isAnalyzed()){
+                f.analyzeAppearances();
+                changed = true;
             }
         }
+
+        if (changed) summarize();
+        return changed;
     }
 
-    public void analyzeSongs(){
+    public boolean isAnalyzed(){
+        return popularitySumByRank != null;
+    }
+
+    private void summarize(){
         popularitySumByRank = new float[10];
-        float popularitySum = 0, peakSum = 0;
+        popularitySum = 0;
+        peakSum = 0;
+        scoreSum = 0;
 
         for (SongFile f : songFiles){
-            f.analyzeAppearances();
             peakSum += f.getPeak().getChartPosition();
-            popularitySum += f.getLastAppearance().getPopularity();
+            popularitySum += f.getPopularity(f.getLastIndex());
             for (int i=0; i<popularitySumByRank.length; i++) popularitySumByRank[i] += f.getPopularitySumByRank()[i];
         }
 
         for (int i=1; i<=popularitySumByRank.length; i++){
-            artistScore += popularitySumByRank[10-i] * i;
+            scoreSum += popularitySumByRank[10-i] * i;
+        }
+
+        scoreChanged();
+    }
+
+    /**
+     * Updates the sums with a new appearance of an analyzed song, without
+     * reading the other songs. The score of an appearance is its
+     * popularity weighted by its decile: 10 for the top 10, 1 for the 91-100.
+     *
+     * @param previousPeak the peak position of the song before the
+     *                     appearance (0 if it's the first one)
+     * @param previousPopularity the popularity of its last appearance
+     *                           (0 if it's the first one)
+     */
+    void onAppearance(int previousPeak, int previousPopularity, int peak, int chartPosition, int popularity){
+        peakSum += peak - previousPeak;
+        popularitySum += popularity - previousPopularity;
+
+        int decile = (chartPosition-1) / 10;
+        if (decile < popularitySumByRank.length){
+            popularitySumByRank[decile] += popularity * 0.01;
+            scoreSum += popularity * 0.01 * (10 - decile);
+            scoreChanged();
         }
+    }
+
+    /**
+     * Restores the analysis from a snapshot. The score is kept without
+     * dividing by the rankings amount, that changes with every ranking.
+     */
+    void restoreAnalysis(float scoreSum, float averagePeak, float averagePopularity, float[] popularitySumByRank){
+        this.scoreSum = scoreSum;
+        this.peakSum = averagePeak * songFiles.size();
+        this.popularitySum = averagePopularity * songFiles.size();
+        this.popularitySumByRank = popularitySumByRank;
+        scoreChanged();
+    }
+
+    /**
+     * @param artistSampler the sampler of the library, where the weight of
+     *                      this artist is the one at its handle
+     */
+    void setLeaderboard(ArtistLeaderboard leaderboard, WeightedSampler artistSampler){
+        this.leaderboard = leaderboard;
+        this.artistSampler = artistSampler;
+        artistSampler.set(handle, getArtistScore());
+    }
+
+    private void scoreChanged(){
+        if (leaderboard != null) leaderboard.update(this);
+        if (artistSampler != null) artistSampler.set(handle, getArtistScore());
+    }
 
-        artistScore = artistScore * 3 / rankingsAmount;
-        averagePopularity = popularitySum / songFiles.size();
-        averagePeak = peakSum / songFiles.size();
+    /**
+     * Sets how the songs are weighted by getRandom. The sampler is built
+     * again on the next pick.
+     */
+    synchronized void setSongWeight(ToDoubleFunction<SongFile> songWeight){
+        this.songWeight = songWeight;
+        this.songSampler = null;
+    }
+
+    /**
+     * Called when a song gets a new appearance, so its weight may change
+     */
+    synchronized void songChanged(SongFile songFile){
+        if (songSampler != null) songSampler.set(songFile.getArtistIndex(), getSongWeight(songFile));
+    }
+
+    float getScoreSum() {
+        return scoreSum;
     }
 
     public float getAveragePeak() {
-        return averagePeak;
+        return songFiles.isEmpty() ? 0 : peakSum / songFiles.size();
     }
 
     public String getArtistName() {
-        return file.getName();
+        return artistName;
+    }
+
+    public int getHandle() {
+        return handle;
     }
 
     public float getArtistScore() {
-        return artistScore;
+        return scoreSum * 3 / rankingsAmount * scoreFactor + scoreBonus;
     }
 
     public float[] getPopularitySumByRank() {
@@ -79,24 +176,21 @@ public class ArtistDirectory implements Comparable<ArtistDirectory> {
     }
 
     public SongFile getSongById(String trackId){
-        for (SongFile f : songFiles){
-            if (f.getTrackId().equals(trackId))
-                return f;
-        }
-
-        return null;
+        return songsById.get(SymbolTable.TRACKS.lookup(trackId));
     }
 
+    /**
+     * The factor and the increment are kept apart from the score of the
+     * appearances, so they survive a new analysis
+     */
     public void multiplyScore(double factor){
-        this.artistScore *= factor;
+        this.scoreFactor *= factor;
+        scoreChanged();
     }
 
     public void incrementScore(double delta){
-        this.artistScore += delta;
-    }
-
-    public File getFile() {
-        return file;
+        this.scoreBonus += delta;
+        scoreChanged();
     }
 
     public int getSongCount(){
@@ -107,16 +201,30 @@ public class ArtistDirectory implements Comparable<ArtistDirectory> {
         return songFiles.getRandomElement();
     }
 
-    public float getAveragePopularity() {
-        return averagePopularity;
+    /**
+     * @return a song picked by its weight
+     */
+    public synchronized SongFile getRandom(Random random){
+        if (songFiles.isEmpty()) return null;
+        if (songWeight == null) return songFiles.get(random.nextInt(songFiles.size()));
+
+        if (songSampler == null){
+            songSampler = new WeightedSampler(songFiles.size());
+            for (SongFile f : songFiles) songSampler.add(getSongWeight(f));
+        }
+
+        return songFiles.get(songSampler.sample(random));
     }
 
-    public void setRank(int rank) {
-        this.rank = rank;
+    public float getAveragePopularity() {
+        return songFiles.isEmpty() ? 0 : popularitySum / songFiles.size();
     }
 
+    /**
+     * @return the position of the artist by score, starting from 1
+     */
     public int getRank() {
-        return rank;
+        return leaderboard == null ? 0 : leaderboard.getRank(this);
     }
 
     public CustomList<SongFile> getSongFiles() {
@@ -125,7 +233,7 @@ public class ArtistDirectory implements Comparable<ArtistDirectory> {
 
     @Override
     public int compareTo(ArtistDirectory o) {
-        return Float.compare(o.getArtistScore(), artistScore);
+        return Float.compare(o.getArtistScore(), getArtistScore());
     }
 
     @Override
@@ -0,0 +1,155 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.web.statsforspotify.model.IntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Artists ordered by score, highest first. It's a treap where every node
+ * knows the size of its subtree, so adding an artist, moving it after its
+ * score changes and finding its rank are O(log n). The directories tell the
+ * leaderboard when their score changes, so it's never sorted again.
+ */
+public class ArtistLeaderboard {
+    private final IntMap<Node> nodes = new IntMap<>();
+    private Node root;
+
+    private static class Node {
+        private final ArtistDirectory artist;
+        private final float score;
+        private final int priority;
+        private int size = 1;
+        private Node left, right;
+
+        private Node(ArtistDirectory artist) {
+            this.artist = artist;
+            this.score = artist.getArtistScore();
+            this.priority = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    public synchronized void add(ArtistDirectory artist){
+        if (nodes.containsKey(artist.getHandle())) return;
+        insert(new Node(artist));
+    }
+
+    /**
+     * Moves the artist to the place of its current score
+     */
+    synchronized void update(ArtistDirectory artist){
+        Node node = nodes.get(artist.getHandle());
+        if (node == null || Float.compare(node.score, artist.getArtistScore()) == 0) return;
+
+        root = remove(root, node.score, artist.getHandle());
+        insert(new Node(artist));
+    }
+
+    private void insert(Node node){
+        nodes.put(node.artist.getHandle(), node);
+        Node[] parts = split(root, node.score, node.artist.getHandle());
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /**
+     * @return the position of the artist, starting from 1 (0 if it isn't here)
+     */
+    public synchronized int getRank(ArtistDirectory artist){
+        Node node = nodes.get(artist.getHandle());
+        if (node == null) return 0;
+
+        int before = 0;
+        Node current = root;
+
+        while (current != null){
+            int comp = compare(node.score, artist.getHandle(), current);
+            if (comp == 0) return before + size(current.left) + 1;
+            if (comp < 0) current = current.left;
+            else {
+                before += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return a copy of the first artists, so it can be read while the
+     * scores change
+     */
+    public synchronized List<ArtistDirectory> getTop(int size){
+        List<ArtistDirectory> result = new ArrayList<>(Math.min(size, size(root)));
+        collect(root, result, size);
+        return result;
+    }
+
+    private void collect(Node node, List<ArtistDirectory> result, int size){
+        if (node == null || result.size() == size) return;
+        collect(node.left, result, size);
+        if (result.size() < size) result.add(node.artist);
+        collect(node.right, result, size);
+    }
+
+    public synchronized int size(){
+        return size(root);
+    }
+
+    // the highest score first, and the lowest handle first on ties
+    private static int compare(float score, int handle, Node node){
+        int comp = Float.compare(node.score, score);
+        return comp == 0 ? Integer.compare(handle, node.artist.getHandle()) : comp;
+    }
+
+    private static int size(Node node){
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node fix(Node node){
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    /**
+     * @return the nodes before the key and the nodes from the key on
+     */
+    private static Node[] split(Node node, float score, int handle){
+        if (node == null) return new Node[2];
+
+        if (compare(score, handle, node) <= 0){
+            Node[] parts = split(node.left, score, handle);
+            node.left = parts[1];
+            parts[1] = fix(node);
+            return parts;
+        } else {
+            Node[] parts = split(node.right, score, handle);
+            node.right = parts[0];
+            parts[0] = fix(node);
+            return parts;
+        }
+    }
+
+    private static Node merge(Node left, Node right){
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority){
+            left.right = merge(left.right, right);
+            return fix(left);
+        } else {
+            right.left = merge(left, right.left);
+            return fix(right);
+        }
+    }
+
+    private static Node remove(Node node, float score, int handle){
+        if (node == null) return null;
+        int comp = compare(score, handle, node);
+        if (comp == 0) return merge(node.left, node.right);
+
+        if (comp < 0) node.left = remove(node.left, score, handle);
+        else node.right = remove(node.right, score, handle);
+        return fix(node);
+    }
+}
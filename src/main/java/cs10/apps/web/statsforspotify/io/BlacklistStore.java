@@ -0,0 +1,185 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.web.statsforspotify.model.BlockedItem;
+import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Blocked tracks by id. Every change is a line appended to a log
+ * (B--id--times to block, D--id to decrement, U--id to unlock), so the file
+ * is never rewritten on a change. When the log gets much longer than the
+ * blocked items, it's compacted to one B line per item.
+ */
+public class BlacklistStore {
+    private static final String FILENAME = "blacklist.log";
+    private static final String LEGACY_FILENAME = "blacklist.dat";
+    private static final String BLOCK = "B", DECREMENT = "D", UNLOCK = "U";
+    private static final int MIN_EVENTS_TO_COMPACT = 64;
+    private static BlacklistStore instance;
+
+    private final File file;
+    private final Map<String, BlockedItem> items = new HashMap<>();
+    private int events;
+
+    private BlacklistStore(File directory){
+        this.file = new File(directory, FILENAME);
+    }
+
+    public synchronized static BlacklistStore getInstance(){
+        if (instance == null){
+            instance = new BlacklistStore(IOUtils.STORE_DIR);
+
+            try {
+                instance.load();
+            } catch (IOException e){
+                Maintenance.writeErrorFile(e, true);
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Replays the log. A broken line (the app died while writing it) is
+     * skipped. The old blacklist.dat is read only if there is no log yet.
+     */
+    private void load() throws IOException {
+        File legacy = new File(LEGACY_FILENAME);
+
+        if (!file.exists()){
+            if (legacy.exists()) loadLegacy(legacy);
+            compact();
+            return;
+        }
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file))){
+            String line;
+
+            while ((line = br.readLine()) != null){
+                String[] params = line.split("--");
+
+                try {
+                    switch (params[0]){
+                        case BLOCK:
+                            put(params[1], Integer.parseInt(params[2]));
+                            break;
+                        case DECREMENT:
+                            BlockedItem bi = items.get(params[1]);
+                            if (bi != null) bi.decrementTimesUntilUnlock();
+                            break;
+                        case UNLOCK:
+                            items.remove(params[1]);
+                            break;
+                        default:
+                            throw new NumberFormatException();
+                    }
+
+                    events++;
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e){
+                    System.err.println(file.getPath() + ": invalid line " + line);
+                }
+            }
+        }
+
+        if (needsCompaction()) compact();
+    }
+
+    private void loadLegacy(File legacy) throws IOException {
+        try (BufferedReader br = new BufferedReader(new FileReader(legacy))){
+            String line;
+
+            while ((line = br.readLine()) != null){
+                String[] params = line.split("--");
+
+                try {
+                    put(params[1], Integer.parseInt(params[0]));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e){
+                    System.err.println(legacy.getPath() + ": invalid line " + line);
+                }
+            }
+        }
+    }
+
+    private void put(String trackId, int timesUntilUnlock){
+        BlockedItem bi = new BlockedItem(trackId);
+        bi.setTimesUntilUnlock(timesUntilUnlock);
+        items.put(trackId, bi);
+    }
+
+    public synchronized boolean isBlocked(String trackId){
+        return items.containsKey(trackId);
+    }
+
+    public synchronized void block(String trackId, int timesUntilUnlock){
+        put(trackId, timesUntilUnlock);
+        append(BLOCK + "--" + trackId + "--" + timesUntilUnlock);
+    }
+
+    /**
+     * Called when a blocked track is skipped. The track is unlocked after
+     * being skipped the times it was blocked for.
+     *
+     * @return true if the track was blocked
+     */
+    public synchronized boolean decrement(String trackId){
+        BlockedItem bi = items.get(trackId);
+        if (bi == null) return false;
+
+        bi.decrementTimesUntilUnlock();
+        if (bi.getTimesUntilUnlock() > 0) append(DECREMENT + "--" + trackId);
+        else unlock(trackId);
+        return true;
+    }
+
+    public synchronized void unlock(String trackId){
+        if (items.remove(trackId) != null) append(UNLOCK + "--" + trackId);
+    }
+
+    public synchronized int size(){
+        return items.size();
+    }
+
+    private void append(String event){
+        try {
+            try (FileWriter fw = new FileWriter(file, true)){
+                fw.write(event);
+                fw.write('\n');
+            }
+
+            events++;
+            if (needsCompaction()) compact();
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, true);
+        }
+    }
+
+    private boolean needsCompaction(){
+        return events >= MIN_EVENTS_TO_COMPACT && events >= 2 * items.size();
+    }
+
+    /**
+     * Writes the blocked items to a temporary file and replaces the log with it
+     */
+    private void compact() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && parent.mkdirs())
+            System.out.println(parent.getPath() + " created");
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileWriter fw = new FileWriter(temp, false)){
+            for (BlockedItem bi : items.values()){
+                fw.write(BLOCK + "--" + bi.getId() + "--" + bi.getTimesUntilUnlock());
+                fw.write('\n');
+            }
+        }
+
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        events = items.size();
+    }
+}
@@ -0,0 +1,52 @@
+package cs10.apps.web.statsforspotify.io;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps the decoded histories under a budget of appearances. When it's
+ * exceeded, the songs are swept in the order they were decoded: a song
+ * read since the last sweep gets another chance, the others are encoded
+ * again (second chance, an approximation of LRU that costs one boolean
+ * per read).
+ */
+class HistoryCache {
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long budget, total;
+
+    private static class Entry {
+        private final SongFile songFile;
+        private final int size;
+
+        private Entry(SongFile songFile, int size) {
+            this.songFile = songFile;
+            this.size = size;
+        }
+    }
+
+    HistoryCache(long budget){
+        this.budget = budget;
+    }
+
+    synchronized void loaded(SongFile songFile, int size){
+        entries.add(new Entry(songFile, size));
+        total += size;
+        sweep();
+    }
+
+    synchronized void setBudget(long budget){
+        this.budget = budget;
+        sweep();
+    }
+
+    private void sweep(){
+        // every song gets at most one more chance, even if it's read meanwhile
+        int steps = entries.size() * 2;
+
+        while (total > budget && steps-- > 0){
+            Entry e = entries.poll();
+            if (e.songFile.evict()) total -= e.size;
+            else entries.add(e);
+        }
+    }
+}
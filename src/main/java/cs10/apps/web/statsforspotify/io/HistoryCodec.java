@@ -0,0 +1,136 @@
+package cs10.apps.web.statsforspotify.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Encoding of the appearances of one song. The block starts with the count,
+ * the first appearance and the peak, followed by the differences between
+ * consecutive appearances, one column at a time (positions, popularities and
+ * ranking codes). Every number is a zig-zag varint, so small differences
+ * take one byte.
+ */
+public class HistoryCodec {
+
+    /**
+     * Values of the block header, read without decoding the appearances
+     */
+    public static class Header {
+        private final int count;
+        private final SongPeak peak;
+
+        private Header(int count, SongPeak peak) {
+            this.count = count;
+            this.peak = peak;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public SongPeak getPeak() {
+            return peak;
+        }
+    }
+
+    private HistoryCodec(){ }
+
+    static byte[] encode(AppearanceArray appearances){
+        int count = appearances.size();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + count * 3);
+        writeVarint(out, count);
+        if (count == 0) return out.toByteArray();
+
+        SongPeak peak = new SongPeak();
+        for (int i=0; i<count; i++){
+            int position = appearances.getChartPosition(i);
+            if (peak.isPeak(position)){
+                peak.setChartPosition(position);
+                peak.setRankingCode(appearances.getRankingCode(i));
+                peak.resetTimes();
+                peak.incrementTimes();
+            } else if (peak.getChartPosition() == position){
+                peak.incrementTimes();
+            }
+        }
+
+        writeVarint(out, appearances.getChartPosition(0));
+        writeVarint(out, appearances.getPopularity(0));
+        writeVarint(out, appearances.getRankingCode(0));
+        writeVarint(out, peak.getChartPosition());
+        writeVarint(out, peak.getTimes());
+        writeVarint(out, peak.getRankingCode());
+
+        for (int i=1; i<count; i++)
+            writeVarint(out, appearances.getChartPosition(i) - appearances.getChartPosition(i-1));
+        for (int i=1; i<count; i++)
+            writeVarint(out, appearances.getPopularity(i) - appearances.getPopularity(i-1));
+        for (int i=1; i<count; i++)
+            writeVarint(out, appearances.getRankingCode(i) - appearances.getRankingCode(i-1));
+
+        return out.toByteArray();
+    }
+
+    public static Header decodeHeader(ByteBuffer block){
+        ByteBuffer in = block.duplicate();
+        int count = readVarint(in);
+        if (count == 0) return new Header(0, new SongPeak());
+
+        for (int i=0; i<3; i++) readVarint(in);
+        int peakPosition = readVarint(in);
+        int peakTimes = readVarint(in);
+        int peakCode = readVarint(in);
+        return new Header(count, new SongPeak(peakPosition, peakCode, peakTimes));
+    }
+
+    /**
+     * @param extraCapacity room left in the result for the appearances
+     *                      that come after the block
+     */
+    static AppearanceArray decode(ByteBuffer block, int extraCapacity){
+        ByteBuffer in = block.duplicate();
+        int count = readVarint(in);
+        AppearanceArray result = new AppearanceArray(count + extraCapacity);
+        if (count == 0) return result;
+
+        int[] positions = new int[count], popularities = new int[count], codes = new int[count];
+        positions[0] = readVarint(in);
+        popularities[0] = readVarint(in);
+        codes[0] = readVarint(in);
+        for (int i=0; i<3; i++) readVarint(in);
+
+        for (int i=1; i<count; i++) positions[i] = positions[i-1] + readVarint(in);
+        for (int i=1; i<count; i++) popularities[i] = popularities[i-1] + readVarint(in);
+        for (int i=1; i<count; i++) codes[i] = codes[i-1] + readVarint(in);
+
+        for (int i=0; i<count; i++){
+            result.add(positions[i], popularities[i], codes[i]);
+        }
+
+        return result;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value){
+        int zigZag = (value << 1) ^ (value >> 31);
+
+        while ((zigZag & ~0x7F) != 0){
+            out.write((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+
+        out.write(zigZag);
+    }
+
+    private static int readVarint(ByteBuffer in){
+        int zigZag = 0, shift = 0;
+        byte b;
+
+        do {
+            b = in.get();
+            zigZag |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+}
@@ -0,0 +1,121 @@
+package cs10.apps.web.statsforspotify.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Compacted appearances: one {@link HistoryCodec} block per track, covering
+ * the appearance log until a given length. The records after it are still
+ * read from the log, and the segments before it can be deleted.
+ */
+public class HistoryFile {
+    private static final String FILENAME = "histories.dat";
+    private static final int MAGIC = 0x48495354;
+
+    private final File file;
+    private long coveredLength;
+
+    public interface BlockReader {
+        void onBlock(int trackHandle, ByteBuffer block);
+    }
+
+    public HistoryFile(File directory){
+        this.file = new File(directory, FILENAME);
+    }
+
+    public boolean exists(){
+        return file.exists();
+    }
+
+    /**
+     * @return records of the appearance log included in the blocks
+     */
+    public long getCoveredLength() {
+        return coveredLength;
+    }
+
+    /**
+     * Reads the whole file once. The blocks given to the reader share that
+     * array, nothing is decoded here.
+     */
+    public void read(BlockReader reader) throws IOException {
+        coveredLength = 0;
+        if (!file.exists()) return;
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        CRC32 crc = new CRC32();
+        if (data.length >= 24) crc.update(data, 0, data.length - 8);
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < 24 || buffer.getLong(data.length - 8) != crc.getValue() || buffer.getInt() != MAGIC)
+            throw new IOException(file.getPath() + " is corrupted");
+
+        long covered = buffer.getLong();
+        int count = buffer.getInt();
+
+        for (int i=0; i<count; i++){
+            int handle = buffer.getInt();
+            int length = buffer.getInt();
+            ByteBuffer block = buffer.slice();
+            block.limit(length);
+            buffer.position(buffer.position() + length);
+            reader.onBlock(handle, block);
+        }
+
+        coveredLength = covered;
+    }
+
+    /**
+     * Reads every appearance: the blocks first and then the rest of the log
+     */
+    public void readAll(AppearanceLog log, AppearanceLog.Reader reader) throws IOException {
+        read((trackHandle, block) -> {
+            AppearanceArray appearances = HistoryCodec.decode(block, 0);
+            for (int i=0; i<appearances.size(); i++)
+                reader.onAppearance(trackHandle, appearances.getChartPosition(i),
+                        appearances.getPopularity(i), appearances.getRankingCode(i));
+        });
+
+        log.read(coveredLength, reader);
+    }
+
+    /**
+     * Writes the history of every song to a temporary file, replaces this
+     * file with it and then deletes the log segments it covers
+     */
+    public void write(List<SongFile> songs, AppearanceLog log) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(out);
+        long covered = log.getLength();
+        int count = 0;
+
+        for (SongFile sf : songs) if (sf != null && sf.getAppearancesCount() > 0) count++;
+
+        dos.writeInt(MAGIC);
+        dos.writeLong(covered);
+        dos.writeInt(count);
+
+        for (SongFile sf : songs){
+            if (sf == null || sf.getAppearancesCount() == 0) continue;
+            ByteBuffer block = sf.getEncodedHistory();
+            dos.writeInt(sf.getHandle());
+            dos.writeInt(block.remaining());
+            out.write(block.array(), block.arrayOffset() + block.position(), block.remaining());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out.toByteArray());
+        dos.writeLong(crc.getValue());
+
+        File temp = new File(file.getPath() + ".tmp");
+        Files.write(temp.toPath(), out.toByteArray());
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        coveredLength = covered;
+        log.deleteSegmentsBefore(covered);
+    }
+}
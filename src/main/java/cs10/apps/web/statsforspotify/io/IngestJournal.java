@@ -0,0 +1,223 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the ranking ingestion. The whole ranking and the
+ * length of every store file are written in one checksummed record and
+ * synced before the ranking is applied. If the app dies while applying it,
+ * the next start cuts the store files back to those lengths and the library
+ * applies the ranking again.
+ */
+public class IngestJournal {
+    private static final String FILENAME = "ingest.wal";
+    private static final int MAGIC = 0x57414C31;
+    private static BigRanking pendingRanking;
+    private static boolean recovered, reapplying;
+
+    private final File directory, file;
+
+    public IngestJournal(File directory){
+        this.directory = directory;
+        this.file = new File(directory, FILENAME);
+    }
+
+    /**
+     * Writes the record and syncs it. Nothing of the ranking may be written
+     * in the store before this returns. A record that wasn't committed is
+     * never replaced, unless it's the one taken to apply again: the store
+     * files may have part of its ranking, and only the next start cuts them.
+     *
+     * @param logLength records of the appearance log before the ranking
+     */
+    public void begin(BigRanking ranking, long logLength) throws IOException {
+        synchronized (IngestJournal.class){
+            if (file.exists() && !reapplying)
+                throw new IOException("The ranking of " + file.getPath() + " wasn't applied yet. Restart the app");
+            reapplying = false;
+        }
+
+        if (!directory.exists() && directory.mkdirs())
+            System.out.println(directory.getPath() + " created");
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(payload);
+        dos.writeLong(ranking.getCode());
+        dos.writeInt((int) LocalDate.parse(ranking.getDate()).toEpochDay());
+        dos.writeLong(getStoreFile(TrackTable.FILENAME).length());
+        dos.writeLong(logLength);
+        dos.writeLong(getStoreFile(RankingStore.ROWS_FILENAME).length());
+        dos.writeLong(getStoreFile(RankingStore.INDEX_FILENAME).length());
+        dos.writeLong(getStoreFile(RankingCatalog.FILENAME).length());
+        dos.writeInt(ranking.size());
+
+        for (Song s : ranking){
+            dos.writeUTF(s.getId());
+            dos.writeUTF(s.getName());
+            dos.writeUTF(s.getArtists());
+            dos.writeShort(s.getRank());
+            dos.writeShort(s.getPopularity());
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.toByteArray());
+
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.size() + 8);
+        record.putInt(MAGIC);
+        record.putInt(payload.size());
+        record.put(payload.toByteArray());
+        record.putLong(crc.getValue());
+        record.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            while (record.hasRemaining()) channel.write(record);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * The ranking was applied completely. Every store file it was written to
+     * is synced first, so the record isn't deleted while the ranking is only
+     * in the OS cache.
+     *
+     * @param log where the appearances of the ranking were appended
+     * @param logLength records of the log before the ranking
+     */
+    public void commit(AppearanceLog log, long logLength) throws IOException {
+        force(TrackTable.FILENAME);
+        force(RankingStore.ROWS_FILENAME);
+        force(RankingStore.INDEX_FILENAME);
+        force(RankingCatalog.FILENAME);
+        log.force(logLength);
+        delete();
+    }
+
+    private void delete() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    /**
+     * Runs once, before any store file is read. An incomplete or corrupted
+     * record was never applied, so it's discarded. A valid one was applied
+     * partially (or not at all): the store files are cut back and the ranking
+     * is kept for {@link #takePendingRanking()}.
+     */
+    public synchronized static void recover(){
+        if (recovered) return;
+        recovered = true;
+
+        IngestJournal journal = new IngestJournal(IOUtils.STORE_DIR);
+        if (!journal.file.exists()) return;
+
+        try {
+            pendingRanking = journal.read();
+
+            if (pendingRanking == null){
+                System.err.println(journal.file.getPath() + " is incomplete. Discarding");
+                journal.delete();
+            } else Maintenance.log("Ranking " + pendingRanking.getCode() + " was interrupted. Recovering");
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, true);
+        }
+    }
+
+    /**
+     * @return the interrupted ranking to apply again (only once), or null
+     */
+    public synchronized static BigRanking takePendingRanking(){
+        BigRanking result = pendingRanking;
+        pendingRanking = null;
+        if (result != null) reapplying = true;
+        return result;
+    }
+
+    /**
+     * Cuts the store files back to the lengths of the record.
+     *
+     * @return the ranking of the record, or null if it's incomplete or corrupted
+     */
+    BigRanking read() throws IOException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        if (data.length < 8) return null;
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt() != MAGIC) return null;
+        int length = buffer.getInt();
+        if (length < 0 || buffer.remaining() < length + 8) return null;
+
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (buffer.getLong() != crc.getValue()) return null;
+
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(payload));
+        BigRanking ranking = new BigRanking();
+        ranking.setCode(dis.readLong());
+        ranking.setDate(LocalDate.ofEpochDay(dis.readInt()).toString());
+
+        long tracksLength = dis.readLong();
+        long logLength = dis.readLong();
+        long rowsLength = dis.readLong();
+        long indexLength = dis.readLong();
+        long catalogLength = dis.readLong();
+
+        int size = dis.readInt();
+        for (int i=0; i<size; i++){
+            Song song = new Song();
+            song.setId(dis.readUTF());
+            song.setName(dis.readUTF());
+            song.setArtists(dis.readUTF());
+            song.setRank(dis.readShort());
+            song.setPopularity(dis.readShort());
+            ranking.add(song);
+        }
+
+        cut(getStoreFile(TrackTable.FILENAME), tracksLength);
+        cut(getStoreFile(RankingStore.ROWS_FILENAME), rowsLength);
+        cut(getStoreFile(RankingStore.INDEX_FILENAME), indexLength);
+        cut(getStoreFile(RankingCatalog.FILENAME), catalogLength);
+        new AppearanceLog(directory).truncate(logLength);
+
+        return ranking;
+    }
+
+    /**
+     * A file that was empty (or didn't exist) before the ranking is deleted
+     */
+    private void cut(File f, long length) throws IOException {
+        if (!f.exists()) return;
+
+        if (length == 0) Files.delete(f.toPath());
+        else if (f.length() > length){
+            try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.WRITE)){
+                channel.truncate(length);
+            }
+        }
+    }
+
+    private void force(String filename) throws IOException {
+        File f = getStoreFile(filename);
+        if (!f.exists()) return;
+
+        try (FileChannel channel = FileChannel.open(f.toPath(), StandardOpenOption.WRITE)){
+            channel.force(true);
+        }
+    }
+
+    private File getStoreFile(String filename){
+        return new File(directory, filename);
+    }
+}
@@ -0,0 +1,432 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+import cs10.apps.web.statsforspotify.view.CustomPlayer;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+/**
+ * Copies the old library/artist/track and ranking/code text files into the
+ * store. The folders are parsed by a bounded pool of threads while the
+ * results are written in order, one artist at a time, so only a few artists
+ * are in memory. After each artist a checkpoint is saved, and if the app dies
+ * the migration goes on from there. Every written artist and ranking is read
+ * back and compared (rows and CRC32) with the source. Malformed rows are
+ * skipped and written in the report. The old files are kept.
+ */
+public class LegacyMigration {
+    private static final File LIBRARY_FOLDER = new File("library");
+    private static final String CHECKPOINT_FILENAME = "migration.ckpt";
+    private static final String REPORT_FILENAME = "migration-report.txt";
+    private static final int MAX_POSITION = 200, MAX_POPULARITY = 100;
+    private static volatile boolean done;
+    private static Thread running;
+
+    private final File directory, checkpointFile;
+    private final CustomPlayer player;
+    private final int threads;
+    private Checkpoint checkpoint;
+    private PrintWriter report;
+
+    private static class Checkpoint {
+        private int nextFolder, artistCount, trackCount;
+        private long logLength, rows, malformedRows;
+        private boolean libraryDone, rankingsDone;
+    }
+
+    private static class ParsedTrack {
+        private final String id, name;
+        private final List<SongAppearance> appearances = new ArrayList<>();
+
+        private ParsedTrack(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static class ParsedArtist {
+        private final String name;
+        private final List<ParsedTrack> tracks = new ArrayList<>();
+        private final List<String> malformed = new ArrayList<>();
+
+        private ParsedArtist(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class ParsedRanking {
+        private final File file;
+        private final List<String> malformed = new ArrayList<>();
+        private BigRanking ranking;
+
+        private ParsedRanking(File file) {
+            this.file = file;
+        }
+    }
+
+    private LegacyMigration(File directory, CustomPlayer player){
+        this.directory = directory;
+        this.checkpointFile = new File(directory, CHECKPOINT_FILENAME);
+        this.player = player;
+        this.threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Runs the migration if the old files weren't migrated yet. It's called
+     * before the store is read, and only the first call does something.
+     *
+     * @param player to show the progress (may be null)
+     */
+    public static void runIfNeeded(CustomPlayer player){
+        if (done) return;
+
+        // the other threads wait here until the store is migrated
+        synchronized (LegacyMigration.class){
+            // the migration itself opens the store, which calls this again
+            if (done || running == Thread.currentThread()) return;
+            running = Thread.currentThread();
+
+            LegacyMigration migration = new LegacyMigration(IOUtils.STORE_DIR, player);
+            try {
+                if (migration.isPending()) migration.run();
+            } catch (IOException | ExecutionException e){
+                Maintenance.writeErrorFile(e, true);
+                System.err.println("The migration will go on the next time");
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+            } finally {
+                running = null;
+                done = true;
+            }
+        }
+    }
+
+    /**
+     * A store written by a previous version (without checkpoint) counts as
+     * migrated
+     */
+    private boolean isPending() throws IOException {
+        if (checkpointFile.exists()){
+            checkpoint = readCheckpoint();
+            return !checkpoint.rankingsDone;
+        }
+
+        if (new File(directory, TrackTable.FILENAME).exists()) return false;
+        if (new File(directory, RankingStore.INDEX_FILENAME).exists()) return false;
+        return LIBRARY_FOLDER.exists() || new File(IOUtils.RANKING_FOLDER).exists();
+    }
+
+    private void run() throws IOException, ExecutionException, InterruptedException {
+        if (checkpoint == null) checkpoint = new Checkpoint();
+        if (!directory.exists() && directory.mkdirs())
+            System.out.println(directory.getPath() + " created");
+
+        long startTime = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        try (PrintWriter pw = new PrintWriter(new FileWriter(new File(directory, REPORT_FILENAME), true))){
+            this.report = pw;
+            report.println("Migration started " + new Date());
+
+            if (!checkpoint.libraryDone) migrateLibrary(pool);
+            if (!checkpoint.rankingsDone) migrateRankings(pool);
+
+            report.println(checkpoint.rows + " rows migrated, " + checkpoint.malformedRows + " malformed rows skipped");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Maintenance.log("Migration -- " + (System.currentTimeMillis() - startTime) + " ms, "
+                + checkpoint.malformedRows + " malformed rows (see " + REPORT_FILENAME + ")");
+    }
+
+    // --------------------------------- LIBRARY ---------------------------------
+
+    private void migrateLibrary(ExecutorService pool) throws IOException, ExecutionException, InterruptedException {
+        File[] folders = LIBRARY_FOLDER.listFiles(File::isDirectory);
+        if (folders == null) folders = new File[0];
+
+        // sorted, so the checkpoint index means the same after a restart
+        Arrays.sort(folders, Comparator.comparing(File::getName));
+        setProgress("Migrating library...", checkpoint.nextFolder, folders.length);
+        Maintenance.log("Migrating " + (folders.length - checkpoint.nextFolder) + " artists from " + LIBRARY_FOLDER.getPath());
+
+        TrackTable trackTable = TrackTable.getInstance();
+        AppearanceLog log = new AppearanceLog(directory);
+        log.truncate(checkpoint.logLength);
+
+        // at most 2 folders per thread are parsed ahead of the writer
+        Deque<Future<ParsedArtist>> window = new ArrayDeque<>();
+        int next = checkpoint.nextFolder;
+
+        for (int i=checkpoint.nextFolder; i<folders.length; i++){
+            while (next < folders.length && window.size() < threads * 2){
+                File folder = folders[next++];
+                window.add(pool.submit(() -> parseArtist(folder)));
+            }
+
+            writeArtist(window.poll().get(), trackTable, log);
+            checkpoint.nextFolder = i + 1;
+            saveCheckpoint();
+            setProgress(null, i + 1, folders.length);
+        }
+
+        checkpoint.libraryDone = true;
+        saveCheckpoint();
+    }
+
+    private ParsedArtist parseArtist(File folder) throws IOException {
+        ParsedArtist result = new ParsedArtist(folder.getName());
+        File[] files = folder.listFiles(File::isFile);
+        if (files == null) return result;
+
+        Arrays.sort(files, Comparator.comparing(File::getName));
+
+        for (File f : files){
+            try (BufferedReader br = new BufferedReader(new FileReader(f))){
+                String name = br.readLine();
+                if (name == null){
+                    result.malformed.add(f.getPath() + ": empty file");
+                    continue;
+                }
+
+                ParsedTrack track = new ParsedTrack(f.getName(), name);
+                String line;
+                int lineNumber = 1;
+
+                while ((line = br.readLine()) != null){
+                    lineNumber++;
+                    SongAppearance a = parseAppearance(line);
+                    if (a == null) result.malformed.add(f.getPath() + ":" + lineNumber + ": " + line);
+                    else track.appearances.add(a);
+                }
+
+                result.tracks.add(track);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the appearance, or null if the line is malformed
+     */
+    private static SongAppearance parseAppearance(String line){
+        String[] params = line.split("--");
+        if (params.length != 3) return null;
+
+        try {
+            SongAppearance a = new SongAppearance(line);
+            if (!a.isValid() || a.getChartPosition() > MAX_POSITION || a.getPopularity() > MAX_POPULARITY) return null;
+            return a;
+        } catch (NumberFormatException e){
+            return null;
+        }
+    }
+
+    private void writeArtist(ParsedArtist artist, TrackTable trackTable, AppearanceLog log) throws IOException {
+        report(artist.malformed);
+        if (artist.tracks.isEmpty()) return;
+
+        // if the app died while writing this artist, its records are reused
+        int artistHandle = trackTable.getArtistCount() > checkpoint.artistCount ?
+                checkpoint.artistCount : trackTable.registerArtist(artist.name);
+
+        AppearanceLog.Batch batch = new AppearanceLog.Batch();
+        CRC32 expected = new CRC32();
+
+        for (ParsedTrack t : artist.tracks){
+            int handle = trackTable.getTrackHandle(t.id);
+
+            if (handle >= 0 && handle < checkpoint.trackCount){
+                report.println(artist.name + "/" + t.id + ": duplicated, " + t.appearances.size() + " rows skipped");
+                continue;
+            }
+
+            if (handle < 0) handle = trackTable.registerTrack(t.id, artistHandle, t.name);
+
+            for (SongAppearance a : t.appearances){
+                batch.add(handle, a.getChartPosition(), a.getPopularity(), a.getRankingCode());
+                update(expected, a.getChartPosition(), a.getPopularity(), a.getRankingCode());
+            }
+        }
+
+        trackTable.flush();
+        long from = log.getLength();
+        log.append(batch);
+
+        CRC32 written = new CRC32();
+        long[] count = new long[1];
+        log.read(from, (trackHandle, chartPosition, popularity, rankingCode) -> {
+            update(written, chartPosition, popularity, rankingCode);
+            count[0]++;
+        });
+
+        if (count[0] != batch.size() || written.getValue() != expected.getValue())
+            throw new IOException(artist.name + ": verification failed (" + count[0] + " of " + batch.size() + " rows)");
+
+        checkpoint.artistCount = trackTable.getArtistCount();
+        checkpoint.trackCount = trackTable.getTrackCount();
+        checkpoint.logLength = log.getLength();
+        checkpoint.rows += batch.size();
+    }
+
+    // --------------------------------- RANKINGS --------------------------------
+
+    private void migrateRankings(ExecutorService pool) throws IOException, ExecutionException, InterruptedException {
+        File[] files = new File(IOUtils.RANKING_FOLDER).listFiles(File::isFile);
+        if (files == null) files = new File[0];
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        setProgress("Migrating rankings...", 0, files.length);
+
+        // rankings are small, so all of them are parsed before writing
+        List<Future<ParsedRanking>> futures = new ArrayList<>(files.length);
+        for (File f : files) futures.add(pool.submit(() -> parseRanking(f)));
+
+        List<BigRanking> rankings = new ArrayList<>(files.length);
+        for (Future<ParsedRanking> future : futures){
+            ParsedRanking parsed = future.get();
+            report(parsed.malformed);
+            if (parsed.ranking != null) rankings.add(parsed.ranking);
+        }
+
+        // stable sort: same day rankings keep the file order
+        rankings.sort(Comparator.comparing(BigRanking::getDate));
+        Maintenance.log("Migrating " + rankings.size() + " rankings from " + IOUtils.RANKING_FOLDER);
+        RankingStore store = RankingStore.getInstance();
+
+        for (int i=0; i<rankings.size(); i++){
+            BigRanking r = rankings.get(i);
+
+            // already migrated before a restart
+            if (!store.contains(r.getCode())){
+                store.importRanking(r);
+                verifyRanking(store, r);
+                checkpoint.rows += r.size();
+            }
+
+            setProgress(null, i + 1, rankings.size());
+        }
+
+        checkpoint.rankingsDone = true;
+        saveCheckpoint();
+    }
+
+    private ParsedRanking parseRanking(File f) throws IOException {
+        ParsedRanking result = new ParsedRanking(f);
+
+        try (BufferedReader br = new BufferedReader(new FileReader(f))){
+            BigRanking ranking = new BigRanking();
+            ranking.setCode(Long.parseLong(f.getName()));
+            ranking.setDate(LocalDate.parse(String.valueOf(br.readLine())).toString());
+
+            String line;
+            int lineNumber = 1;
+
+            while ((line = br.readLine()) != null){
+                lineNumber++;
+                String[] params = line.split("--");
+
+                try {
+                    int rank = Integer.parseInt(params[0]);
+                    if (params.length != 2 || rank < 1 || rank > MAX_POSITION || params[1].isEmpty())
+                        throw new NumberFormatException();
+
+                    Song song = new Song();
+                    song.setRank(rank);
+                    song.setId(params[1]);
+                    ranking.add(song);
+                } catch (NumberFormatException e){
+                    result.malformed.add(f.getPath() + ":" + lineNumber + ": " + line);
+                }
+            }
+
+            result.ranking = ranking;
+        } catch (NumberFormatException | DateTimeParseException e){
+            result.malformed.add(f.getPath() + ": invalid name or date. Skipping the file");
+        }
+
+        return result;
+    }
+
+    private void verifyRanking(RankingStore store, BigRanking ranking) throws IOException {
+        long code = ranking.getCode();
+        CRC32 expected = new CRC32(), written = new CRC32();
+
+        for (Song s : ranking) expected.update((s.getRank() + "--" + s.getId() + "\n").getBytes());
+        for (int i=0; i<store.getSize(code); i++)
+            written.update((store.getRank(code, i) + "--" + store.getTrackId(code, i) + "\n").getBytes());
+
+        if (store.getSize(code) != ranking.size() || written.getValue() != expected.getValue())
+            throw new IOException("Ranking " + code + ": verification failed");
+    }
+
+    // --------------------------------- COMMON ----------------------------------
+
+    private static void update(CRC32 crc, int chartPosition, int popularity, int rankingCode){
+        crc.update(chartPosition);
+        crc.update(popularity);
+        crc.update(rankingCode >>> 24);
+        crc.update(rankingCode >>> 16);
+        crc.update(rankingCode >>> 8);
+        crc.update(rankingCode);
+    }
+
+    private void report(List<String> malformed){
+        for (String s : malformed) report.println(s);
+        checkpoint.malformedRows += malformed.size();
+    }
+
+    private void setProgress(String text, int value, int max){
+        if (player == null) return;
+        if (text != null) player.getProgressBar().setString(text);
+        player.getProgressBar().setMaximum(max);
+        player.setProgress(value);
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(checkpointFile))){
+            Checkpoint c = new Checkpoint();
+            c.nextFolder = dis.readInt();
+            c.artistCount = dis.readInt();
+            c.trackCount = dis.readInt();
+            c.logLength = dis.readLong();
+            c.rows = dis.readLong();
+            c.malformedRows = dis.readLong();
+            c.libraryDone = dis.readBoolean();
+            c.rankingsDone = dis.readBoolean();
+            return c;
+        }
+    }
+
+    /**
+     * Written to a temporary file and then moved, so it's never half written
+     */
+    private void saveCheckpoint() throws IOException {
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+
+        try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(temp))){
+            dos.writeInt(checkpoint.nextFolder);
+            dos.writeInt(checkpoint.artistCount);
+            dos.writeInt(checkpoint.trackCount);
+            dos.writeLong(checkpoint.logLength);
+            dos.writeLong(checkpoint.rows);
+            dos.writeLong(checkpoint.malformedRows);
+            dos.writeBoolean(checkpoint.libraryDone);
+            dos.writeBoolean(checkpoint.rankingsDone);
+        }
+
+        Files.move(temp.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
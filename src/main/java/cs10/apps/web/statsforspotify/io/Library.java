@@ -2,147 +2,574 @@ package cs10.apps.web.statsforspotify.io;
 
 import cs10.apps.desktop.statsforspotify.model.Song;
 import cs10.apps.web.statsforspotify.model.CustomList;
+import cs10.apps.web.statsforspotify.model.IntMap;
+import cs10.apps.web.statsforspotify.model.SymbolTable;
+import cs10.apps.web.statsforspotify.model.WeightedSampler;
 import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.model.ranking.SimpleRanking;
 import cs10.apps.web.statsforspotify.utils.IOUtils;
 import cs10.apps.web.statsforspotify.utils.Maintenance;
 import cs10.apps.web.statsforspotify.view.CustomPlayer;
 import cs10.apps.web.statsforspotify.view.OptionPanes;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.ToDoubleFunction;
 
 public class Library {
-    private static final File BASE_DIR = new File("library//");
+    private static final int COMPACT_RECORDS = 1 << 16;
+    private static final long HISTORY_BUDGET = 1 << 20;
     private CustomList<ArtistDirectory> artistDirectories;
+    private final List<ArtistDirectory> artistsByHandle = new ArrayList<>();
+    private final List<SongFile> songsByHandle = new ArrayList<>();
+    private final IntMap<ArtistDirectory> artistsByName = new IntMap<>();
+    private final IntMap<SongFile> songsById = new IntMap<>();
+    private final ArtistLeaderboard leaderboard = new ArtistLeaderboard();
+    private final WeightedSampler artistSampler = new WeightedSampler();
+    private ToDoubleFunction<SongFile> songWeight = Library::getLastPopularity;
+    private Random random = new Random();
     private final List<Song> trends = new LinkedList<>();
+    private final TrackTable trackTable;
+    private final AppearanceLog appearanceLog;
+    private final IngestJournal journal;
+    private final AnalysisSnapshot snapshot;
+    private final HistoryFile histories;
+    private final RankingDetails details;
+    private PositionMatrix positions = new PositionMatrix();
+    private final RankingMaterializer materializer = new RankingMaterializer(this);
+    private ScoreTrajectories trajectories;
+    private final HistoryCache historyCache = new HistoryCache(HISTORY_BUDGET);
     private static Library instance;
-    private final int rankingsAmount;
-
-    private Library(File rootFile, CustomPlayer player){
-        this.rankingsAmount = IOUtils.getRankingsAmount();
-        this.explore(rootFile, player);
+    private int rankingsAmount;
+
+    // appearances added to the analysis since the snapshot was saved
+    private boolean analysisUpdated;
+
+    private Library(CustomPlayer player){
+        LegacyMigration.runIfNeeded(player);
+        this.trackTable = TrackTable.getInstance();
+        this.appearanceLog = new AppearanceLog(IOUtils.STORE_DIR);
+        this.journal = new IngestJournal(IOUtils.STORE_DIR);
+        this.snapshot = new AnalysisSnapshot(IOUtils.STORE_DIR);
+        this.histories = new HistoryFile(IOUtils.STORE_DIR);
+        this.details = new RankingDetails(IOUtils.STORE_DIR);
+        this.explore(player);
     }
 
     public synchronized static Library getInstance(CustomPlayer player){
         if (instance == null){
-            instance = new Library(BASE_DIR, player);
+            instance = new Library(player);
+
+            BigRanking interrupted = IngestJournal.takePendingRanking();
+            if (interrupted != null) instance.ingest(interrupted);
         }
 
         return instance;
     }
 
-    private void explore(File rootFile, CustomPlayer player){
+    private void explore(CustomPlayer player){
         artistDirectories = new CustomList<>();
 
-        File[] internalDirectories = rootFile.listFiles();
-        if (internalDirectories != null){
-            int progress = 0, max = internalDirectories.length;
-            player.getProgressBar().setMaximum(max);
-            for (File f : internalDirectories){
-                ArtistDirectory artistDirectory = new ArtistDirectory(f, rankingsAmount);
-                artistDirectories.add(artistDirectory);
-                player.setProgress(++progress);
+        try {
+            appearanceLog.open();
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, true);
+            OptionPanes.message("Unable to open the library");
+            return;
+        }
+
+        rankingsAmount = IOUtils.getRankingsAmount();
+
+        for (int i=0; i<trackTable.getArtistCount(); i++){
+            artistsByHandle.add(new ArtistDirectory(i, trackTable.getArtistName(i), rankingsAmount));
+        }
+
+        for (int i=0; i<trackTable.getTrackCount(); i++){
+            if (trackTable.isPlaceholder(i)) songsByHandle.add(null);
+            else {
+                ArtistDirectory a = artistsByHandle.get(trackTable.getTrackArtist(i));
+                songsByHandle.add(new SongFile(i, trackTable.getTrackId(i), trackTable.getTrackName(i), a));
+            }
+        }
+
+        try {
+            histories.read((trackHandle, block) -> {
+                SongFile sf = songsByHandle.get(trackHandle);
+                if (sf != null) sf.setHistory(block, historyCache);
+            });
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, true);
+            OptionPanes.message("Unable to open the library");
+            return;
+        }
+
+        // only the records after the histories
+        long covered = histories.getCoveredLength();
+        int first = appearanceLog.getSegmentIndex(covered);
+        int max = appearanceLog.getSegmentCount();
+        if (player != null) player.getProgressBar().setMaximum(max - first);
+
+        for (int i=first; i<max; i++){
+            try {
+                appearanceLog.readSegment(i, covered, (trackHandle, chartPosition, popularity, rankingCode) ->
+                        songsByHandle.get(trackHandle).addAppearance(chartPosition, popularity, rankingCode));
+            } catch (IOException e){
+                Maintenance.writeErrorFile(e, true);
             }
+
+            if (player != null) player.setProgress(i+1-first);
+        }
+
+        // tracks registered without appearances are left out of the views
+        for (SongFile sf : songsByHandle){
+            if (sf != null && sf.getAppearancesCount() > 0) addSongFile(sf);
+        }
+
+        for (ArtistDirectory a : artistsByHandle){
+            if (a.getSongCount() > 0) addArtist(a);
+        }
+
+        positions = PositionMatrix.build(RankingCatalog.getInstance(), RankingStore.getInstance());
+        replayLifecycles();
+        summarizeMissing();
+
+        try {
+            snapshot.restore(songsByHandle, artistsByHandle, appearanceLog.getLength());
+            if (!histories.exists() || appearanceLog.getLength() - covered >= COMPACT_RECORDS)
+                histories.write(songsByHandle, appearanceLog);
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
         }
     }
 
+    /**
+     * Analyzes the songs with appearances that aren't in the snapshot yet,
+     * and writes the snapshot again if there was any. The appearances of a
+     * ranking are added to the analysis while it's ingested, this only finds
+     * the songs and artists that weren't analyzed then.
+     */
     public void analyze(){
-        for (ArtistDirectory a : artistDirectories){
-            a.analyzeSongs();
+        boolean changed = analysisUpdated;
+        analysisUpdated = false;
+
+        if (LibraryLoader.analyze(new ArrayList<>(artistDirectories))) changed = true;
+
+        if (changed) try {
+            snapshot.save(songsByHandle, artistsByHandle, getLastRankingCode(), appearanceLog.getLength());
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
         }
     }
 
+    private long getLastRankingCode(){
+        RankingCatalog catalog = RankingCatalog.getInstance();
+        int amount = catalog.getRankingsAmount();
+        return amount == 0 ? 0 : catalog.getBySequence(amount - 1).getCodeAsLong();
+    }
+
     /**
      * @param artistName the exactly name of the artist
      * @return their directory (null if not exists)
      */
     public ArtistDirectory getArtistByName(String artistName){
-        artistName = artistName.replace("/\\","");
+        return artistsByName.get(SymbolTable.ARTISTS.lookup(normalize(artistName)));
+    }
 
-        for (ArtistDirectory d : artistDirectories){
-            if (d.getArtistName().equals(artistName))
-                return d;
-        }
+    /**
+     * @return the position of the artist by score (0 if not exists)
+     */
+    public int getArtistRank(String artistName){
+        ArtistDirectory d = getArtistByName(artistName);
+        return d == null ? 0 : leaderboard.getRank(d);
+    }
+
+    private void addArtist(ArtistDirectory a){
+        artistDirectories.add(a);
+        artistsByName.put(SymbolTable.ARTISTS.intern(normalize(a.getArtistName())), a);
+        leaderboard.add(a);
 
-        return null;
+        // the artists without songs keep a weight of 0
+        while (artistSampler.size() <= a.getHandle()) artistSampler.add(0);
+        a.setLeaderboard(leaderboard, artistSampler);
+        a.setSongWeight(songWeight);
     }
 
-    public int getArtistRank(String artistName){
-        artistName = artistName.replace("/\\","");
+    private void addSongFile(SongFile sf){
+        sf.getArtistReference().addSongFile(sf);
+        songsById.put(SymbolTable.TRACKS.intern(sf.getTrackId()), sf);
+    }
 
-        for (int i=0; i<artistDirectories.size(); i++){
-            if (artistDirectories.get(i).getArtistName().equals(artistName))
-                return i+1;
+    private static String normalize(String artistName){
+        return artistName.replace("/\\","");
+    }
+
+    /**
+     * @return a copy of the artists with the highest scores
+     */
+    public List<ArtistDirectory> getTop(int size){
+        return leaderboard.getTop(size);
+    }
+
+    /**
+     * Adds every song of the ranking to the library and saves the ranking.
+     * The ranking goes to the journal first, so if the app dies in between
+     * it's applied again on the next start. The library in memory only
+     * changes after the journal is committed.
+     *
+     * @return false if the ranking couldn't be saved (it's applied on the
+     * next start)
+     */
+    public boolean ingest(BigRanking bigRanking){
+        if (bigRanking.getDate() == null) bigRanking.setDate(LocalDate.now().toString());
+        RankingCatalog catalog = RankingCatalog.getInstance();
+        SimpleRanking same = catalog.findByFingerprint(bigRanking.getFingerprint());
+
+        if (same != null && same.getCodeAsLong() == bigRanking.getCode()){
+            // it was ingested already, the songs only need their files
+            for (Song s : bigRanking){
+                if (!relinkSongFile(s)) System.err.println(s + " not found");
+            }
+            return true;
+        }
+
+        // the code is a sum of popularities, so different rankings may have the same one
+        while (catalog.contains(bigRanking.getCode())) bigRanking.setCode(bigRanking.getCode() + 1);
+
+        AppearanceLog.Batch batch = new AppearanceLog.Batch();
+        long logLength = appearanceLog.getLength();
+        SongFile[] songFiles;
+
+        try {
+            journal.begin(bigRanking, logLength);
+            songFiles = prepare(bigRanking, bigRanking.getCode(), batch);
+            write(batch);
+
+            // the same tracks were saved before: its rows are shared, the appearances aren't
+            RankingStore store = RankingStore.getInstance();
+            boolean saved = same != null ?
+                    store.saveCopy(bigRanking.getCode(), same.getCodeAsLong(), bigRanking.getDate()) :
+                    store.save(bigRanking, bigRanking.getDate(), true);
+
+            if (!saved) throw new IOException("The ranking " + bigRanking.getCode() + " wasn't saved");
+            catalog.add(bigRanking, bigRanking.getDate());
+            journal.commit(appearanceLog, logLength);
+        } catch (IOException e){
+            // the journal is kept, so the ranking is applied on the next start
+            Maintenance.writeErrorFile(e, true);
+            OptionPanes.message("Unable to save the ranking in the library");
+            return false;
         }
 
-        return 0;
+        apply(bigRanking, songFiles, bigRanking.getCode());
+        indexRanking(bigRanking);
+        addToTrajectories(bigRanking);
+        return true;
     }
 
-    public void sort(){
-        Collections.sort(artistDirectories);
-        int rank = 1;
-        for (ArtistDirectory ad : artistDirectories) ad.setRank(rank++);
+    private void summarize(int sequence){
+        RankingCatalog catalog = RankingCatalog.getInstance();
+        catalog.setSummary(catalog.getBySequence(sequence).getCodeAsLong(), positions.summarize(sequence, trackTable));
     }
 
-    public List<ArtistDirectory> getTop(int size){
-        return artistDirectories.subList(0, Math.min(size, artistDirectories.size()));
+    // the rankings saved before the summaries existed, or when the app died
+    private void summarizeMissing(){
+        RankingCatalog catalog = RankingCatalog.getInstance();
+
+        for (int i=0; i<positions.getColumnCount(); i++){
+            if (catalog.getBySequence(i).getSummary() == null) summarize(i);
+        }
+    }
+
+    // the lifecycles of an older ranking can't be updated in place
+    private void replayLifecycles(){
+        for (SongFile sf : songsByHandle){
+            if (sf == null) continue;
+            sf.getLifecycle().clear();
+            positions.replay(sf.getHandle(), sf.getLifecycle());
+        }
     }
 
-    public void update(BigRanking bigRanking){
+    private synchronized void addToTrajectories(BigRanking bigRanking){
+        if (trajectories == null) return;
+        int column = RankingCatalog.getInstance().getSequence(bigRanking.getCode());
+
+        // an older ranking was replaced, they're built again when needed
+        if (column < trajectories.getColumnCount()){
+            trajectories = null;
+            return;
+        }
+
         for (Song s : bigRanking){
-            updateSongFile(bigRanking.getCode(), s);
+            if (s.getSongFile() != null) trajectories.add(s.getSongFile().getArtistReference().getHandle(),
+                    column, s.getRank(), s.getPopularity());
+        }
+    }
+
+    /**
+     * @return the score of every artist as of every saved ranking. The
+     * first call reads every appearance.
+     */
+    public synchronized ScoreTrajectories getScoreTrajectories(){
+        if (trajectories == null) try {
+            trajectories = ScoreTrajectories.build(histories, appearanceLog);
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
+            return new ScoreTrajectories();
         }
+
+        return trajectories;
     }
 
-    private void updateSongFile(long rankingCode, Song s) {
-        String artist = s.getArtists().split(", ")[0];
-            ArtistDirectory a = getArtistByName(artist);
-            if (a == null) {
-                File dirCreated = ArtistDirectory.makeDirectory(BASE_DIR, artist);
-                a = new ArtistDirectory(dirCreated, rankingsAmount);
-                artistDirectories.add(a);
+    // adds the saved ranking to the position matrix and the details
+    private void indexRanking(BigRanking bigRanking){
+        long code = bigRanking.getCode();
+        int sequence = RankingCatalog.getInstance().getSequence(code);
+        if (sequence >= 0){
+            boolean replaced = sequence < positions.getColumnCount();
+            positions.setColumn(sequence, code, RankingStore.getInstance());
+            summarize(sequence);
+
+            if (replaced){
+                // the next ranking is compared with this one
+                if (sequence + 1 < positions.getColumnCount()) summarize(sequence + 1);
+                replayLifecycles();
             }
+            else {
+                int[] handles = positions.getColumn(sequence);
+                for (int i=0; i<handles.length; i++){
+                    SongFile sf = handles[i] < 0 || handles[i] >= songsByHandle.size() ? null : songsByHandle.get(handles[i]);
+                    if (sf != null) sf.getLifecycle().onRanking(sequence, i+1);
+                }
+            }
+        }
+
+        materializer.clear();
+
+        // without them, the details are filled from the log later
+        try {
+            details.add(bigRanking.getCode(), bigRanking);
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
+        }
+    }
+
+    /**
+     * @param current if it isn't null, the status of every song is set
+     *                against it (LEFT if it isn't there anymore). Otherwise
+     *                it's the one against the ranking before.
+     * @return the saved ranking with every detail, only for the caller
+     */
+    public BigRanking getRanking(long code, BigRanking current){
+        BigRanking ranking = materializer.get(code);
+        if (current != null) ranking.retrieveAllStatus(current);
+        return ranking;
+    }
+
+    /**
+     * @return the position of every song in every saved ranking
+     */
+    public PositionMatrix getPositionMatrix(){
+        return positions;
+    }
+
+    /**
+     * @param date yyyy-MM-dd
+     * @return track handle of the #1 of the first ranking saved on the date,
+     * or -1 if no ranking was saved that day
+     */
+    public int getNumberOne(String date){
+        int sequence = RankingCatalog.getInstance().getFirstSequence(date);
+        return sequence < 0 ? -1 : positions.getTrackHandle(sequence, 1);
+    }
+
+    /**
+     * @return the popularity of each row of the saved ranking (0 if it's
+     * unknown), or null if it can't be read
+     */
+    public short[] getPopularities(long code){
+        try {
+            if (!details.contains(code)) fillDetails();
+            return details.get(code);
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
+            return null;
+        }
+    }
+
+    /**
+     * Adds the details of every saved ranking that doesn't have them, with
+     * one pass over all the appearances
+     */
+    private synchronized void fillDetails() throws IOException {
+        RankingStore store = RankingStore.getInstance();
+        IntMap<short[]> values = new IntMap<>();
+        IntMap<IntMap<Integer>> rows = new IntMap<>();
+        List<Long> codes = new ArrayList<>();
+
+        for (long code : store.getCodes()){
+            if (details.contains(code)) continue;
+            codes.add(code);
+
+            // the log only has int codes, the others keep 0
+            if (code < 0 || code > Integer.MAX_VALUE) continue;
+            int size = store.getSize(code);
+            IntMap<Integer> rowByHandle = new IntMap<>(size);
+            for (int i=0; i<size; i++) rowByHandle.put(store.getTrackHandle(code, i), i);
+            values.put((int) code, new short[size]);
+            rows.put((int) code, rowByHandle);
+        }
+
+        if (codes.isEmpty()) return;
+
+        histories.readAll(appearanceLog, (trackHandle, chartPosition, popularity, rankingCode) -> {
+            IntMap<Integer> rowByHandle = rows.get(rankingCode);
+            Integer row = rowByHandle == null ? null : rowByHandle.get(trackHandle);
+            if (row != null) values.get(rankingCode)[row] = (short) popularity;
+        });
+
+        for (long code : codes){
+            short[] v = code < 0 || code > Integer.MAX_VALUE ? null : values.get((int) code);
+            details.add(code, v == null ? new short[store.getSize(code)] : v);
+        }
+
+        Maintenance.log("Details added for " + codes.size() + " rankings");
+    }
+
+    /**
+     * Finds the file of every song and adds its appearance to the batch. The
+     * tracks and artists that aren't in the store are registered, but their
+     * files aren't added to the library until {@link #apply} runs.
+     */
+    private SongFile[] prepare(Collection<Song> songs, long rankingCode, AppearanceLog.Batch batch){
+        SongFile[] result = new SongFile[songs.size()];
+        Map<String, ArtistDirectory> newArtists = new HashMap<>();
+        Map<String, SongFile> newSongs = new HashMap<>();
+        int i = 0;
+
+        for (Song s : songs){
+            SongFile songFile = findById(s.getIdSymbol());
+            if (songFile == null) songFile = newSongs.get(s.getId());
 
-            SongFile songFile = a.getSongById(s.getId());
             if (songFile == null){
-                try {
-                    File fileCreated = SongFile.createFile(a.getFile(), s);
-                    songFile = new SongFile(fileCreated, a);
-                    a.addSongFile(songFile);
-                } catch (IOException e){
-                    Maintenance.writeErrorFile(e, true);
-                    OptionPanes.message("Unable to create " + s.getName() + " song file");
-                    return;
+                int handle = trackTable.getTrackHandle(s.getId());
+
+                // registered without appearances, so it isn't in the views
+                if (handle >= 0 && handle < songsByHandle.size() && songsByHandle.get(handle) != null)
+                    songFile = songsByHandle.get(handle);
+                else {
+                    String artist = normalize(s.getMainArtist());
+                    ArtistDirectory a = getArtistByName(artist);
+                    if (a == null) a = newArtists.computeIfAbsent(artist, name ->
+                            new ArtistDirectory(trackTable.registerArtist(name), name, rankingsAmount));
+
+                    handle = trackTable.registerTrack(s.getId(), a.getHandle(), s.getName());
+                    songFile = new SongFile(handle, s.getId(), s.getName(), a);
                 }
+
+                newSongs.put(s.getId(), songFile);
             }
 
+            batch.add(songFile.getHandle(), s.getRank(), s.getPopularity(), rankingCode);
+            result[i++] = songFile;
+        }
+
+        return result;
+    }
+
+    /**
+     * Adds the appearances of a prepared ranking, once it's saved
+     */
+    private void apply(Collection<Song> songs, SongFile[] songFiles, long rankingCode){
+        int i = 0;
+
+        for (Song s : songs){
+            SongFile songFile = songFiles[i++];
+            if (findById(songFile.getTrackId()) != songFile) addNewSongFile(songFile);
             songFile.update(s, rankingCode);
+            analysisUpdated = true;
             s.setSongFile(songFile);
+        }
+    }
+
+    private void addNewSongFile(SongFile songFile){
+        ArtistDirectory a = songFile.getArtistReference();
+        if (getArtistByName(a.getArtistName()) != a){
+            while (artistsByHandle.size() <= a.getHandle()) artistsByHandle.add(null);
+            artistsByHandle.set(a.getHandle(), a);
+            addArtist(a);
+        }
+
+        // the ranking store may have registered placeholders in between
+        while (songsByHandle.size() <= songFile.getHandle()) songsByHandle.add(null);
+        songsByHandle.set(songFile.getHandle(), songFile);
+        addSongFile(songFile);
+
+        // a promoted placeholder was already in some saved rankings
+        positions.replay(songFile.getHandle(), songFile.getLifecycle());
     }
 
+    private void write(AppearanceLog.Batch batch) throws IOException {
+        trackTable.flush();
+        appearanceLog.append(batch);
+    }
 
     public void relink(BigRanking bigRanking){
+        List<Song> missing = new ArrayList<>();
+
         for (Song s : bigRanking){
             if (!relinkSongFile(s)){
                 System.err.println(s + " not found");
-                updateSongFile(bigRanking.getCode(), s);
+                missing.add(s);
             }
         }
+
+        if (missing.isEmpty()) return;
+        AppearanceLog.Batch batch = new AppearanceLog.Batch();
+        SongFile[] songFiles = prepare(missing, bigRanking.getCode(), batch);
+
+        try {
+            write(batch);
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, true);
+            OptionPanes.message("Unable to save the ranking in the library");
+            return;
+        }
+
+        apply(missing, songFiles, bigRanking.getCode());
     }
 
     private boolean relinkSongFile(Song s) {
-        String artist = s.getArtists().split(", ")[0];
-            ArtistDirectory a = getArtistByName(artist);
-            if (a == null) return false;
-            SongFile songFile = a.getSongById(s.getId());
-            s.setSongFile(songFile);
-
+        SongFile songFile = findById(s.getIdSymbol());
+        if (songFile == null) return false;
+        s.setSongFile(songFile);
         return true;
     }
 
+    /**
+     * Decodes the histories of the songs in a background thread, so they
+     * are ready when the views read them
+     */
+    public void prefetch(Collection<Song> songs){
+        List<SongFile> songFiles = new ArrayList<>(songs.size());
+        for (Song s : songs) if (s.getSongFile() != null) songFiles.add(s.getSongFile());
+
+        Thread thread = new Thread(() -> {
+            for (SongFile sf : songFiles) sf.load();
+        }, "Library Prefetch");
+
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @param appearances how many appearances may be kept decoded. Every
+     *                    appearance takes 7 bytes, 1M of them take 7 MB.
+     */
+    public void setHistoryBudget(long appearances){
+        historyCache.setBudget(appearances);
+    }
+
     public void addTrend(Song song){
         trends.add(song);
     }
@@ -160,14 +587,11 @@ public class Library {
     }
 
     public SongFile findById(String songId){
-        for (ArtistDirectory a : artistDirectories){
-            for (SongFile sf : a.getSongFiles()){
-                if (sf.getTrackId().equals(songId))
-                    return sf;
-            }
-        }
+        return songsById.get(SymbolTable.TRACKS.lookup(songId));
+    }
 
-        return null;
+    public SongFile findById(int idSymbol){
+        return songsById.get(idSymbol);
     }
 
     public String selectBestId(String id1, String id2, String id3, String id4){
@@ -193,13 +617,47 @@ public class Library {
     }
 
     private float getScore(SongFile sf){
-        int diff = sf.getLastAppearance().getPopularity() - sf.getMediumAppearance().getPopularity() + 1;
-        return diff * sf.getRandomAppearance().getPopularity() - sf.getAppearancesCount();
+        int diff = sf.getPopularity(sf.getLastIndex()) - sf.getPopularity(sf.getMediumIndex()) + 1;
+        return diff * sf.getPopularity(random.nextInt(sf.getAppearancesCount())) - sf.getAppearancesCount();
+    }
+
+    private static double getLastPopularity(SongFile sf){
+        return sf.getPopularity(sf.getLastIndex());
+    }
+
+    /**
+     * Sets the weight of the songs in the random picks (the popularity of
+     * their last appearance by default)
+     */
+    public void setSongWeight(ToDoubleFunction<SongFile> songWeight){
+        this.songWeight = songWeight;
+        for (ArtistDirectory a : artistDirectories) a.setSongWeight(songWeight);
     }
 
-    public SongFile getRandomSong(){
-        SongFile[] arr = new SongFile[4];
-        for (int i=0; i<4; i++) arr[i] = artistDirectories.getRandomElement().getRandom();
-        return selectBestSong(arr[0], arr[1], arr[2], arr[3]);
+    /**
+     * Makes the random picks repeatable
+     */
+    public void setSeed(long seed){
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return an artist picked by their score
+     */
+    public ArtistDirectory getRandomArtist(){
+        int handle = artistSampler.sample(random);
+        return handle < 0 ? null : artistsByHandle.get(handle);
+    }
+
+    /**
+     * @return a song of an artist picked by their score, picked by its weight
+     */
+    public SongFile getRandomSongFile(){
+        if (artistDirectories.isEmpty()) return null;
+        ArtistDirectory a = getRandomArtist();
+
+        // before the analysis every score is 0, and the pick is uniform over every handle
+        if (a == null || a.getSongCount() == 0) a = artistDirectories.get(random.nextInt(artistDirectories.size()));
+        return a.getRandom(random);
     }
 }
@@ -0,0 +1,55 @@
+package cs10.apps.web.statsforspotify.io;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Decodes and analyzes the songs of the library on the common fork-join
+ * pool, split by artist. An artist only reads its own songs, and the
+ * leaderboard and the sampler lock on their own, so the artists don't wait
+ * for each other. Most of the work is decoding the histories, which is the
+ * whole library after a migration or when the snapshot is gone.
+ */
+class LibraryLoader {
+    private static final int ARTISTS_PER_TASK = 32;
+
+    /**
+     * @return true if any artist was analyzed
+     */
+    static boolean analyze(List<ArtistDirectory> artists){
+        if (artists.size() <= ARTISTS_PER_TASK) return new AnalyzeArtists(artists, 0, artists.size()).compute();
+        return ForkJoinPool.commonPool().invoke(new AnalyzeArtists(artists, 0, artists.size()));
+    }
+
+    private static class AnalyzeArtists extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ArtistDirectory> artists;
+        private final int from, to;
+
+        private AnalyzeArtists(List<ArtistDirectory> artists, int from, int to) {
+            this.artists = artists;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from <= ARTISTS_PER_TASK){
+                boolean changed = false;
+                for (int i=from; i<to; i++){
+                    if (artists.get(i).analyzeSongs()) changed = true;
+                }
+
+                return changed;
+            }
+
+            int middle = (from + to) >>> 1;
+            AnalyzeArtists right = new AnalyzeArtists(artists, middle, to);
+            right.fork();
+            boolean changed = new AnalyzeArtists(artists, from, middle).compute();
+            return right.join() | changed;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Ranking;
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.web.statsforspotify.model.ranking.RankingDiff;
+import cs10.apps.web.statsforspotify.model.ranking.RankingSummary;
+
+import java.util.Arrays;
+
+/**
+ * Position of every song in every saved ranking, kept in memory. A column is
+ * a ranking (its sequence number in the {@link RankingCatalog}) with the
+ * track handles in rank order, and a row is a song with the columns where it
+ * appears and its position there, sorted by column. Most songs are only in a
+ * few rankings, so the rows keep only those cells: finding a cell is a
+ * binary search, reading a column is an array access.
+ */
+public class PositionMatrix {
+    private static final int NONE = -1;
+
+    private long[] codes = new long[64];
+    private int[][] columns = new int[64][];
+    private int columnCount;
+
+    private int[][] rowColumns = new int[256][];
+    private short[][] rowPositions = new short[256][];
+    private int[] rowSizes = new int[256];
+
+    /**
+     * Adds every ranking of the catalog
+     */
+    static PositionMatrix build(RankingCatalog catalog, RankingStore store){
+        PositionMatrix matrix = new PositionMatrix();
+        for (int i=0; i<catalog.getRankingsAmount(); i++){
+            matrix.setColumn(i, catalog.getBySequence(i).getCodeAsLong(), store);
+        }
+
+        return matrix;
+    }
+
+    /**
+     * Reads the rows of the ranking from the store into the column. If the
+     * column had a ranking, its cells are replaced.
+     */
+    synchronized void setColumn(int column, long code, RankingStore store){
+        if (column < columnCount) clearColumn(column);
+        while (columnCount <= column) addEmptyColumn();
+
+        int size = store.getSize(code);
+        int[] handles = new int[0];
+
+        for (int i=0; i<size; i++){
+            int rank = store.getRank(code, i);
+            int handle = store.getTrackHandle(code, i);
+            if (rank <= 0 || rank > Short.MAX_VALUE || handle < 0) continue;
+
+            if (rank > handles.length){
+                int oldLength = handles.length;
+                handles = Arrays.copyOf(handles, Math.max(rank, size));
+                Arrays.fill(handles, oldLength, handles.length, NONE);
+            }
+
+            handles[rank-1] = handle;
+            putCell(handle, column, (short) rank);
+        }
+
+        codes[column] = code;
+        columns[column] = handles;
+    }
+
+    private void addEmptyColumn(){
+        if (columnCount == columns.length){
+            codes = Arrays.copyOf(codes, columnCount * 2);
+            columns = Arrays.copyOf(columns, columnCount * 2);
+        }
+
+        columns[columnCount++] = new int[0];
+    }
+
+    private void clearColumn(int column){
+        for (int handle : columns[column]) if (handle != NONE) removeCell(handle, column);
+        columns[column] = new int[0];
+    }
+
+    private void putCell(int handle, int column, short position){
+        if (handle >= rowSizes.length){
+            int length = Math.max(handle + 1, rowSizes.length * 2);
+            rowColumns = Arrays.copyOf(rowColumns, length);
+            rowPositions = Arrays.copyOf(rowPositions, length);
+            rowSizes = Arrays.copyOf(rowSizes, length);
+        }
+
+        int size = rowSizes[handle];
+        if (rowColumns[handle] == null){
+            rowColumns[handle] = new int[4];
+            rowPositions[handle] = new short[4];
+        } else if (size == rowColumns[handle].length){
+            rowColumns[handle] = Arrays.copyOf(rowColumns[handle], size * 2);
+            rowPositions[handle] = Arrays.copyOf(rowPositions[handle], size * 2);
+        }
+
+        int[] cols = rowColumns[handle];
+        short[] positions = rowPositions[handle];
+
+        // the columns are added in order, so it's almost always the last cell
+        int index = size == 0 || cols[size-1] < column ? size : Arrays.binarySearch(cols, 0, size, column);
+        if (index >= 0 && index < size){
+            positions[index] = position;
+            return;
+        }
+
+        if (index < 0) index = -index - 1;
+        System.arraycopy(cols, index, cols, index + 1, size - index);
+        System.arraycopy(positions, index, positions, index + 1, size - index);
+        cols[index] = column;
+        positions[index] = position;
+        rowSizes[handle]++;
+    }
+
+    private void removeCell(int handle, int column){
+        int index = indexOf(handle, column);
+        if (index < 0) return;
+
+        int size = --rowSizes[handle];
+        System.arraycopy(rowColumns[handle], index + 1, rowColumns[handle], index, size - index);
+        System.arraycopy(rowPositions[handle], index + 1, rowPositions[handle], index, size - index);
+    }
+
+    private int indexOf(int handle, int column){
+        if (handle < 0 || handle >= rowSizes.length || rowSizes[handle] == 0) return -1;
+        return Arrays.binarySearch(rowColumns[handle], 0, rowSizes[handle], column);
+    }
+
+    // first cell of the row with a column not below the given one
+    private int lowerBound(int handle, int column){
+        int index = Arrays.binarySearch(rowColumns[handle], 0, rowSizes[handle], column);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    /**
+     * Gives every ranking of the song to its lifecycle, in order
+     */
+    synchronized void replay(int trackHandle, SongLifecycle lifecycle){
+        if (trackHandle < 0 || trackHandle >= rowSizes.length) return;
+
+        for (int i=0; i<rowSizes[trackHandle]; i++){
+            lifecycle.onRanking(rowColumns[trackHandle][i], rowPositions[trackHandle][i]);
+        }
+    }
+
+    /**
+     * Compares the ranking with the one before it. Only the ids and the
+     * positions are needed, so they're taken from the cells instead of
+     * loading the rankings.
+     */
+    synchronized RankingSummary summarize(int column, TrackTable trackTable){
+        Ranking current = toRanking(column, trackTable);
+        Ranking previous = column == 0 ? new Ranking() : toRanking(column - 1, trackTable);
+        RankingDiff diff = RankingDiff.compare(current, previous);
+
+        int reEntries = 0;
+        for (Song s : diff.getEntries()){
+            if (rowColumns[getHandle(column, s)][0] < column) reEntries++;
+        }
+
+        return new RankingSummary(diff, reEntries, getHandle(column, diff.getBiggestGain()),
+                getHandle(column, diff.getBiggestLoss()));
+    }
+
+    private Ranking toRanking(int column, TrackTable trackTable){
+        Ranking ranking = new Ranking();
+        int[] handles = columns[column];
+
+        for (int i=0; i<handles.length; i++){
+            if (handles[i] == NONE) continue;
+            Song song = new Song();
+            song.setId(trackTable.getTrackId(handles[i]));
+            song.setRank(i+1);
+            ranking.add(song);
+        }
+
+        return ranking;
+    }
+
+    private int getHandle(int column, Song song){
+        return song == null ? NONE : columns[column][song.getRank()-1];
+    }
+
+    public synchronized int getColumnCount(){
+        return columnCount;
+    }
+
+    /**
+     * @return the code of the ranking in the column
+     */
+    public synchronized long getCode(int column){
+        return codes[column];
+    }
+
+    /**
+     * @return the position of the song in the ranking, or 0 if it wasn't there
+     */
+    public synchronized int getPosition(int trackHandle, int column){
+        int index = indexOf(trackHandle, column);
+        return index < 0 ? 0 : rowPositions[trackHandle][index];
+    }
+
+    /**
+     * @return the track handle in that position of the ranking, or -1 if none
+     */
+    public synchronized int getTrackHandle(int column, int position){
+        if (column < 0 || column >= columnCount) return NONE;
+        int[] handles = columns[column];
+        return position <= 0 || position > handles.length ? NONE : handles[position-1];
+    }
+
+    /**
+     * @return a copy of the track handles of the ranking by position, with -1
+     * in the positions that had no track
+     */
+    public synchronized int[] getColumn(int column){
+        return column < 0 || column >= columnCount ? new int[0] : columns[column].clone();
+    }
+
+    /**
+     * @param fromColumn first column, included
+     * @param toColumn last column, excluded
+     * @return the position of the song in each column of the range (0 where
+     * it wasn't)
+     */
+    public synchronized short[] getRow(int trackHandle, int fromColumn, int toColumn){
+        short[] result = new short[Math.max(0, toColumn - fromColumn)];
+        if (trackHandle < 0 || trackHandle >= rowSizes.length || rowSizes[trackHandle] == 0) return result;
+
+        int[] cols = rowColumns[trackHandle];
+        for (int i=lowerBound(trackHandle, fromColumn); i<rowSizes[trackHandle] && cols[i] < toColumn; i++){
+            result[cols[i] - fromColumn] = rowPositions[trackHandle][i];
+        }
+
+        return result;
+    }
+
+    /**
+     * @return how many rankings of the range had the song
+     */
+    public synchronized int getCount(int trackHandle, int fromColumn, int toColumn){
+        if (trackHandle < 0 || trackHandle >= rowSizes.length || rowSizes[trackHandle] == 0) return 0;
+        return Math.max(0, lowerBound(trackHandle, toColumn) - lowerBound(trackHandle, fromColumn));
+    }
+
+    /**
+     * @return the first column with the song, or -1 if it's in none
+     */
+    public synchronized int getFirstColumn(int trackHandle){
+        if (trackHandle < 0 || trackHandle >= rowSizes.length || rowSizes[trackHandle] == 0) return NONE;
+        return rowColumns[trackHandle][0];
+    }
+
+    /**
+     * @return the last column with the song, or -1 if it's in none
+     */
+    public synchronized int getLastColumn(int trackHandle){
+        if (trackHandle < 0 || trackHandle >= rowSizes.length || rowSizes[trackHandle] == 0) return NONE;
+        return rowColumns[trackHandle][rowSizes[trackHandle] - 1];
+    }
+}
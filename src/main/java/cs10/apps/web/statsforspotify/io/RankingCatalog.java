@@ -0,0 +1,316 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Ranking;
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.model.ranking.RankingSummary;
+import cs10.apps.web.statsforspotify.model.ranking.SimpleRanking;
+import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Manifest of the saved rankings (code, date, size, average popularity,
+ * sequence number and fingerprint). It's read once and then kept in memory,
+ * so nobody needs to touch the filesystem to know about a ranking. The
+ * summary of each ranking is kept in a second file, since it's written
+ * after the ranking is indexed.
+ */
+public class RankingCatalog {
+    static final String FILENAME = "catalog.dat";
+    private static final String SUMMARIES_FILENAME = "summaries.dat";
+    private static final int ENTRY_SIZE = 30, SUMMARY_SIZE = 8 + 9 * 2 + 2 * 4;
+    private static RankingCatalog instance;
+
+    private final File file, summariesFile;
+    private final Map<Long, SimpleRanking> entries = new HashMap<>();
+    private final List<SimpleRanking> bySequence = new ArrayList<>();
+    private final Map<Long, SimpleRanking> byFingerprint = new HashMap<>();
+
+    private RankingCatalog(File directory){
+        this.file = new File(directory, FILENAME);
+        this.summariesFile = new File(directory, SUMMARIES_FILENAME);
+    }
+
+    public synchronized static RankingCatalog getInstance(){
+        if (instance == null){
+            IngestJournal.recover();
+            instance = new RankingCatalog(IOUtils.STORE_DIR);
+
+            try {
+                if (instance.file.exists()) instance.load();
+                else instance.rebuild();
+                instance.addMissing();
+                instance.loadSummaries();
+            } catch (IOException e){
+                Maintenance.writeErrorFile(e, true);
+            }
+        }
+
+        return instance;
+    }
+
+    private void load() throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            int count = (int) (channel.size() / ENTRY_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(count * ENTRY_SIZE);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+            buffer.flip();
+
+            for (int i=0; i<count; i++){
+                long code = buffer.getLong();
+                int day = buffer.getInt();
+                int size = buffer.getShort();
+                float average = buffer.getFloat();
+                int sequence = buffer.getInt();
+                long fingerprint = buffer.getLong();
+                put(code, LocalDate.ofEpochDay(day).toString(), size, average, sequence, fingerprint);
+            }
+
+            if (channel.size() % ENTRY_SIZE != 0){
+                System.err.println(file.getPath() + " ends with an incomplete entry");
+                channel.truncate((long) count * ENTRY_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Reads the summaries of the rankings in the catalog. The last one of
+     * each code wins.
+     */
+    private void loadSummaries() throws IOException {
+        if (!summariesFile.exists()) return;
+
+        try (FileChannel channel = FileChannel.open(summariesFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            int count = (int) (channel.size() / SUMMARY_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(count * SUMMARY_SIZE);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+            buffer.flip();
+
+            for (int i=0; i<count; i++){
+                long code = buffer.getLong();
+                RankingSummary summary = new RankingSummary(buffer.getShort(), buffer.getShort(), buffer.getShort(),
+                        buffer.getShort(), buffer.getShort(), buffer.getShort(), buffer.getShort(),
+                        buffer.getInt(), buffer.getShort(), buffer.getInt(), buffer.getShort());
+
+                SimpleRanking entry = entries.get(code);
+                if (entry != null) entry.setSummary(summary);
+            }
+
+            if (channel.size() % SUMMARY_SIZE != 0){
+                System.err.println(summariesFile.getPath() + " ends with an incomplete entry");
+                channel.truncate((long) count * SUMMARY_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Builds the catalog from the ranking store. The average popularity of
+     * each ranking is taken from the appearances.
+     */
+    private void rebuild() throws IOException {
+        RankingStore store = RankingStore.getInstance();
+        long[] codes = store.getCodes();
+        if (codes.length == 0) return;
+
+        Map<Integer, long[]> sums = new HashMap<>();
+        AppearanceLog log = new AppearanceLog(IOUtils.STORE_DIR);
+        log.open();
+
+        new HistoryFile(IOUtils.STORE_DIR).readAll(log, (trackHandle, chartPosition, popularity, rankingCode) -> {
+            long[] sum = sums.computeIfAbsent(rankingCode, k -> new long[2]);
+            sum[0] += popularity;
+            sum[1]++;
+        });
+
+        Maintenance.log("Building ranking catalog with " + codes.length + " rankings");
+
+        for (long code : codes){
+            long[] sum = sums.get((int) code);
+            float average = (sum == null) ? 0 : (float) sum[0] / sum[1];
+            write(code, store.getDate(code), store.getSize(code), average, getFingerprint(store, code));
+        }
+    }
+
+    private long getFingerprint(RankingStore store, long code){
+        long fingerprint = BigRanking.EMPTY_FINGERPRINT;
+        for (int i=0; i<store.getSize(code); i++)
+            fingerprint = BigRanking.updateFingerprint(fingerprint, store.getTrackId(code, i));
+        return fingerprint;
+    }
+
+    /**
+     * Adds the rankings of the store that were saved but never reached the
+     * catalog (the app died in between). Their average is unknown.
+     */
+    private void addMissing() throws IOException {
+        RankingStore store = RankingStore.getInstance();
+
+        for (long code : store.getCodes()){
+            if (!entries.containsKey(code)){
+                System.err.println("Ranking " + code + " was missing in the catalog");
+                write(code, store.getDate(code), store.getSize(code), 0, getFingerprint(store, code));
+            }
+        }
+    }
+
+    /**
+     * Adds the ranking after it was saved in the ranking store. A replaced
+     * ranking keeps its sequence number.
+     */
+    public synchronized void add(Ranking ranking, String date){
+        float sum = 0;
+        long fingerprint = BigRanking.EMPTY_FINGERPRINT;
+
+        for (Song s : ranking){
+            sum += s.getPopularity();
+            fingerprint = BigRanking.updateFingerprint(fingerprint, s.getId());
+        }
+
+        try {
+            write(ranking.getCode(), date, ranking.size(), ranking.isEmpty() ? 0 : sum / ranking.size(), fingerprint);
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
+        }
+    }
+
+    private void write(long code, String date, int size, float average, long fingerprint) throws IOException {
+        SimpleRanking previous = entries.get(code);
+        int sequence = (previous == null) ? bySequence.size() : previous.getSequence();
+
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_SIZE);
+        buffer.putLong(code);
+        buffer.putInt((int) LocalDate.parse(date).toEpochDay());
+        buffer.putShort((short) size);
+        buffer.putFloat(average);
+        buffer.putInt(sequence);
+        buffer.putLong(fingerprint);
+        buffer.flip();
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && parent.mkdirs())
+            System.out.println(parent.getPath() + " created");
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+
+        put(code, date, size, average, sequence, fingerprint);
+    }
+
+    private void put(long code, String date, int size, float average, int sequence, long fingerprint){
+        SimpleRanking entry = new SimpleRanking(String.valueOf(code));
+        entry.setDate(date);
+        entry.setSize(size);
+        entry.setAveragePopularity(average);
+        entry.setSequence(sequence);
+        entry.setFingerprint(fingerprint);
+
+        // the last entry of a code wins
+        SimpleRanking previous = entries.put(code, entry);
+        if (previous != null && byFingerprint.get(previous.getFingerprint()) == previous)
+            byFingerprint.remove(previous.getFingerprint());
+        byFingerprint.putIfAbsent(fingerprint, entry);
+        if (sequence < bySequence.size()) bySequence.set(sequence, entry);
+        else bySequence.add(entry);
+    }
+
+    /**
+     * Saves the summary of a ranking of the catalog
+     */
+    public synchronized void setSummary(long code, RankingSummary summary){
+        SimpleRanking entry = entries.get(code);
+        if (entry == null) return;
+
+        ByteBuffer buffer = ByteBuffer.allocate(SUMMARY_SIZE);
+        buffer.putLong(code);
+        buffer.putShort((short) summary.getGains());
+        buffer.putShort((short) summary.getLosses());
+        buffer.putShort((short) summary.getEntries());
+        buffer.putShort((short) summary.getReEntries());
+        buffer.putShort((short) summary.getExits());
+        buffer.putShort((short) summary.getSize());
+        buffer.putShort((short) summary.getPreviousSize());
+        buffer.putInt(summary.getBiggestGain());
+        buffer.putShort((short) summary.getBiggestGainChange());
+        buffer.putInt(summary.getBiggestLoss());
+        buffer.putShort((short) summary.getBiggestLossChange());
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(summariesFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
+            return;
+        }
+
+        entry.setSummary(summary);
+    }
+
+    public synchronized int getRankingsAmount(){
+        return bySequence.size();
+    }
+
+    public synchronized boolean contains(long code){
+        return entries.containsKey(code);
+    }
+
+    /**
+     * @return the catalog entry of the ranking, or null if it wasn't saved
+     */
+    public synchronized SimpleRanking get(long code){
+        return entries.get(code);
+    }
+
+    /**
+     * @return the first saved ranking with the same tracks in the same
+     * order, or null if there is none
+     */
+    public synchronized SimpleRanking findByFingerprint(long fingerprint){
+        return byFingerprint.get(fingerprint);
+    }
+
+    public synchronized SimpleRanking getBySequence(int sequence){
+        return bySequence.get(sequence);
+    }
+
+    public synchronized String getDate(long code){
+        SimpleRanking entry = entries.get(code);
+        return entry == null ? null : entry.getDate();
+    }
+
+    /**
+     * @return sequence number of the ranking, or -1 if it wasn't saved
+     */
+    public synchronized int getSequence(long code){
+        SimpleRanking entry = entries.get(code);
+        return entry == null ? -1 : entry.getSequence();
+    }
+
+    /**
+     * @return sequence number of the first ranking saved on the date
+     * (yyyy-MM-dd), or -1 if there is none
+     */
+    public synchronized int getFirstSequence(String date){
+        for (SimpleRanking r : bySequence){
+            if (r.getDate().equals(date)) return r.getSequence();
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return every ranking, in the order they were saved
+     */
+    public synchronized SimpleRanking[] getAll(){
+        return bySequence.toArray(new SimpleRanking[0]);
+    }
+}
@@ -0,0 +1,108 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Ranking;
+import cs10.apps.desktop.statsforspotify.model.Song;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Popularity of every row of the saved rankings, in the same order as the
+ * rows of the {@link RankingStore}, so a ranking is shown with its details
+ * without reading any history. The artist and name come from the
+ * {@link TrackTable}. Each ranking is appended when it's ingested; the
+ * older ones are filled from the appearance log the first time they're
+ * needed.
+ */
+public class RankingDetails {
+    private static final String FILENAME = "details.dat";
+    private static final int HEADER_SIZE = 8 + 4;
+
+    private final File file;
+    private final Map<Long, short[]> popularities = new HashMap<>();
+    private boolean opened;
+
+    public RankingDetails(File directory){
+        this.file = new File(directory, FILENAME);
+    }
+
+    /**
+     * Reads every entry. An incomplete entry at the end (the app died while
+     * writing it) is cut.
+     */
+    private void open() throws IOException {
+        opened = true;
+        if (!file.exists()) return;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+            buffer.flip();
+
+            int valid = 0;
+            while (buffer.remaining() >= HEADER_SIZE){
+                long code = buffer.getLong();
+                int size = buffer.getInt();
+                if (size < 0 || buffer.remaining() < size * 2) break;
+
+                short[] values = new short[size];
+                buffer.asShortBuffer().get(values);
+                buffer.position(buffer.position() + size * 2);
+
+                // when a ranking is replaced, the last entry wins
+                popularities.put(code, values);
+                valid = buffer.position();
+            }
+
+            if (valid != channel.size()){
+                System.err.println(file.getPath() + " ends with an incomplete entry");
+                channel.truncate(valid);
+            }
+        }
+    }
+
+    /**
+     * @return the popularity of each row, or null if the ranking wasn't added
+     */
+    public synchronized short[] get(long code) throws IOException {
+        if (!opened) open();
+        return popularities.get(code);
+    }
+
+    public synchronized boolean contains(long code) throws IOException {
+        if (!opened) open();
+        return popularities.containsKey(code);
+    }
+
+    /**
+     * @param ranking the songs in the order of its rows
+     */
+    public synchronized void add(long code, Ranking ranking) throws IOException {
+        short[] values = new short[ranking.size()];
+        int i = 0;
+        for (Song s : ranking) values[i++] = (short) s.getPopularity();
+        add(code, values);
+    }
+
+    public synchronized void add(long code, short[] values) throws IOException {
+        if (!opened) open();
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + values.length * 2);
+        buffer.putLong(code);
+        buffer.putInt(values.length);
+        for (short v : values) buffer.putShort(v);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            while (buffer.hasRemaining()) channel.write(buffer);
+        }
+
+        popularities.put(code, values);
+    }
+}
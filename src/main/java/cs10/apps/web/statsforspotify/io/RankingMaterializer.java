@@ -0,0 +1,114 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.desktop.statsforspotify.model.Status;
+import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds saved rankings with every detail (name, artists, popularity and
+ * rank in the ranking before, with its change and status) in one pass over
+ * its rows, from the ranking store, the track table, the details and the
+ * position matrix. The last rankings built are kept, so going back and forth
+ * between them doesn't read the store again.
+ */
+class RankingMaterializer {
+    private static final int CAPACITY = 16;
+
+    private final Library library;
+    private final Map<Long, BigRanking> recent = new LinkedHashMap<Long, BigRanking>(CAPACITY, 0.75f, true){
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, BigRanking> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+
+    RankingMaterializer(Library library){
+        this.library = library;
+    }
+
+    /**
+     * @return a copy of the ranking (empty if it wasn't saved), so the
+     * caller can change its songs
+     */
+    synchronized BigRanking get(long code){
+        BigRanking ranking = recent.get(code);
+        if (ranking == null){
+            ranking = build(code);
+            recent.put(code, ranking);
+        }
+
+        return copy(ranking);
+    }
+
+    private static BigRanking copy(BigRanking ranking){
+        BigRanking result = new BigRanking();
+        result.setCode(ranking.getCode());
+        result.setDate(ranking.getDate());
+
+        for (Song s : ranking){
+            Song song = new Song();
+            song.setRank(s.getRank());
+            song.setId(s.getId());
+            song.setArtists(s.getArtists());
+            song.setName(s.getName());
+            song.setPopularity(s.getPopularity());
+            song.setPreviousRank(s.getPreviousRank());
+            song.setChange(s.getChange());
+            song.setStatus(s.getStatus());
+            result.add(song);
+        }
+
+        return result;
+    }
+
+    /**
+     * Forgets every ranking, a column of the store may have been replaced
+     * and the ranks before them may have changed
+     */
+    synchronized void clear(){
+        recent.clear();
+    }
+
+    private BigRanking build(long code){
+        RankingStore store = RankingStore.getInstance();
+        TrackTable trackTable = TrackTable.getInstance();
+        PositionMatrix positions = library.getPositionMatrix();
+        BigRanking ranking = new BigRanking();
+        ranking.setCode(code);
+
+        if (!store.contains(code)){
+            System.err.println("The ranking " + code + " doesn't exist!");
+            return ranking;
+        }
+
+        ranking.setDate(store.getDate(code));
+        short[] popularities = library.getPopularities(code);
+        int previousColumn = RankingCatalog.getInstance().getSequence(code) - 1;
+
+        for (int i=0; i<store.getSize(code); i++){
+            Song song = new Song();
+            song.setRank(store.getRank(code, i));
+            int handle = store.getTrackHandle(code, i);
+            song.setId(trackTable.getTrackId(handle));
+
+            if (!trackTable.isPlaceholder(handle)){
+                song.setArtists(trackTable.getArtistName(trackTable.getTrackArtist(handle)));
+                song.setName(trackTable.getTrackName(handle));
+                if (popularities != null && i < popularities.length) song.setPopularity(popularities[i]);
+            }
+
+            if (previousColumn >= 0){
+                song.setPreviousRank(positions.getPosition(handle, previousColumn));
+                if (song.getPreviousRank() == 0) song.setStatus(Status.NEW);
+                else song.validateWeb();
+            }
+
+            ranking.add(song);
+        }
+
+        return ranking;
+    }
+}
@@ -0,0 +1,264 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Ranking;
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Binary store with every saved ranking. The rows (rank and track handle,
+ * see {@link TrackTable}) of all the rankings are kept in one memory-mapped
+ * file, and a small index says where the rows of each ranking code start.
+ */
+public class RankingStore {
+    static final String ROWS_FILENAME = "rankings.dat";
+    static final String INDEX_FILENAME = "rankings.idx";
+    private static final int ROW_SIZE = 8, ENTRY_SIZE = 20;
+    private static RankingStore instance;
+
+    private final File rowsFile, indexFile;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>();
+    private MappedByteBuffer rows;
+    private int rowsCount;
+
+    private static class Entry {
+        private final long code;
+        private final int firstRow, size;
+        private final String date;
+
+        private Entry(long code, int firstRow, int size, String date) {
+            this.code = code;
+            this.firstRow = firstRow;
+            this.size = size;
+            this.date = date;
+        }
+    }
+
+    private RankingStore(File directory){
+        this.rowsFile = new File(directory, ROWS_FILENAME);
+        this.indexFile = new File(directory, INDEX_FILENAME);
+    }
+
+    public static RankingStore getInstance(){
+        // outside of the lock: the migration uses the store too
+        LegacyMigration.runIfNeeded(null);
+
+        synchronized (RankingStore.class){
+            if (instance == null){
+                IngestJournal.recover();
+                instance = new RankingStore(IOUtils.STORE_DIR);
+
+                try {
+                    instance.open();
+                } catch (IOException e){
+                    Maintenance.writeErrorFile(e, true);
+                }
+            }
+
+            return instance;
+        }
+    }
+
+    /**
+     * Reads the index and maps the rows. Incomplete rows or entries at the end
+     * (the app died while writing them) are cut.
+     */
+    private void open() throws IOException {
+        if (!indexFile.exists()) return;
+
+        try (FileChannel channel = FileChannel.open(rowsFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)){
+            long size = channel.size();
+            if (size % ROW_SIZE != 0) channel.truncate(size - size % ROW_SIZE);
+            rowsCount = (int) (channel.size() / ROW_SIZE);
+        }
+
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)){
+            int count = (int) (channel.size() / ENTRY_SIZE);
+            ByteBuffer buffer = ByteBuffer.allocate(count * ENTRY_SIZE);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0);
+            buffer.flip();
+
+            int validEntries = 0;
+            for (int i=0; i<count; i++){
+                long code = buffer.getLong();
+                int firstRow = buffer.getInt();
+                int size = buffer.getInt();
+                int day = buffer.getInt();
+                if (firstRow + size > rowsCount) break;
+
+                // when a ranking is replaced, the last entry wins
+                entries.remove(code);
+                entries.put(code, new Entry(code, firstRow, size, LocalDate.ofEpochDay(day).toString()));
+                validEntries++;
+            }
+
+            if (channel.size() != (long) validEntries * ENTRY_SIZE){
+                System.err.println(indexFile.getPath() + " ends with an incomplete entry");
+                channel.truncate((long) validEntries * ENTRY_SIZE);
+            }
+        }
+
+        remap();
+    }
+
+    private void remap() throws IOException {
+        try (FileChannel channel = FileChannel.open(rowsFile.toPath(), StandardOpenOption.READ)){
+            rows = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) rowsCount * ROW_SIZE);
+        }
+    }
+
+    public synchronized boolean contains(long code){
+        return entries.containsKey(code);
+    }
+
+    /**
+     * @return true if the ranking was written
+     */
+    public synchronized boolean save(Ranking ranking, String date, boolean replace){
+        if (!replace && contains(ranking.getCode())) return false;
+
+        try {
+            write(ranking.getCode(), ranking, date);
+            return true;
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
+            return false;
+        }
+    }
+
+    /**
+     * Adds a ranking of the old ranking folder, with its own date
+     */
+    synchronized void importRanking(BigRanking ranking) throws IOException {
+        write(ranking.getCode(), ranking, ranking.getDate());
+    }
+
+    /**
+     * Appends the rows first and then the index entry, so an interrupted
+     * write never leaves an entry pointing to missing rows
+     */
+    private void write(long code, Ranking ranking, String date) throws IOException {
+        File parent = rowsFile.getParentFile();
+        if (parent != null && !parent.exists() && parent.mkdirs())
+            System.out.println(parent.getPath() + " created");
+
+        TrackTable trackTable = TrackTable.getInstance();
+        ByteBuffer data = ByteBuffer.allocate(ranking.size() * ROW_SIZE);
+
+        for (Song s : ranking){
+            int handle = trackTable.getTrackHandle(s.getId());
+            if (handle < 0) handle = trackTable.registerPlaceholder(s.getId());
+            data.putInt(s.getRank());
+            data.putInt(handle);
+        }
+
+        trackTable.flush();
+        data.flip();
+
+        try (FileChannel channel = FileChannel.open(rowsFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            while (data.hasRemaining()) channel.write(data);
+        }
+
+        Entry entry = new Entry(code, rowsCount, ranking.size(), date);
+        rowsCount += ranking.size();
+        remap();
+        writeEntry(entry);
+    }
+
+    /**
+     * Saves a ranking with the same tracks as a saved one. Its entry points
+     * to the rows of that one, nothing else is written.
+     *
+     * @return true if the ranking was written
+     */
+    public synchronized boolean saveCopy(long code, long sourceCode, String date){
+        Entry source = entries.get(sourceCode);
+        if (source == null) return false;
+
+        try {
+            writeEntry(new Entry(code, source.firstRow, source.size, date));
+            return true;
+        } catch (IOException e){
+            Maintenance.writeErrorFile(e, false);
+            return false;
+        }
+    }
+
+    private void writeEntry(Entry entry) throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(ENTRY_SIZE);
+        index.putLong(entry.code);
+        index.putInt(entry.firstRow);
+        index.putInt(entry.size);
+        index.putInt((int) LocalDate.parse(entry.date).toEpochDay());
+        index.flip();
+
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+            while (index.hasRemaining()) channel.write(index);
+        }
+
+        entries.remove(entry.code);
+        entries.put(entry.code, entry);
+    }
+
+    /**
+     * @return codes of the saved rankings, in the order they were saved
+     */
+    public synchronized long[] getCodes(){
+        long[] result = new long[entries.size()];
+        int i = 0;
+        for (long code : entries.keySet()) result[i++] = code;
+        return result;
+    }
+
+    public synchronized int getRankingsAmount(){
+        return entries.size();
+    }
+
+    public synchronized String getDate(long code){
+        Entry entry = entries.get(code);
+        return entry == null ? null : entry.date;
+    }
+
+    public synchronized int getSize(long code){
+        Entry entry = entries.get(code);
+        return entry == null ? 0 : entry.size;
+    }
+
+    /**
+     * @param index zero-based position in the ranking (rank - 1)
+     * @return the track handle in that position, or -1 if there is none
+     */
+    public synchronized int getTrackHandle(long code, int index){
+        Entry entry = entries.get(code);
+        if (entry == null || index < 0 || index >= entry.size) return -1;
+        return rows.getInt((entry.firstRow + index) * ROW_SIZE + 4);
+    }
+
+    public synchronized int getRank(long code, int index){
+        Entry entry = entries.get(code);
+        if (entry == null || index < 0 || index >= entry.size) return 0;
+        return rows.getInt((entry.firstRow + index) * ROW_SIZE);
+    }
+
+    /**
+     * @param index zero-based position in the ranking (rank - 1)
+     * @return the Spotify ID of the track in that position, or null
+     */
+    public String getTrackId(long code, int index){
+        int handle = getTrackHandle(code, index);
+        return handle < 0 ? null : TrackTable.getInstance().getTrackId(handle);
+    }
+}
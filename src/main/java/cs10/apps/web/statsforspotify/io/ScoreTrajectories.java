@@ -0,0 +1,160 @@
+package cs10.apps.web.statsforspotify.io;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Score of every artist as of every saved ranking. For each artist it keeps
+ * the rankings (catalog sequence) where its songs scored and the sum of the
+ * scores up to each of them, so the score as of a ranking is a binary
+ * search and a series of k rankings is O(k). The score as of a ranking is
+ * the same as {@link ArtistDirectory#getArtistScore()} if that had been the
+ * last ranking, without the bonus of the current playback.
+ */
+public class ScoreTrajectories {
+    private int[][] columns = new int[64][];
+    private double[][] sums = new double[64][];
+    private int[] sizes = new int[64];
+    private int columnCount;
+
+    /**
+     * Adds every appearance: the histories first and then the rest of the log
+     */
+    static ScoreTrajectories build(HistoryFile histories, AppearanceLog log) throws IOException {
+        RankingCatalog catalog = RankingCatalog.getInstance();
+        TrackTable trackTable = TrackTable.getInstance();
+
+        // the appearances come by song, so they're sorted by ranking after
+        long[][] cells = new long[trackTable.getArtistCount()][];
+        int[] counts = new int[cells.length];
+
+        histories.readAll(log, (trackHandle, chartPosition, popularity, rankingCode) -> {
+            int column = catalog.getSequence(rankingCode);
+            float score = getAppearanceScore(chartPosition, popularity);
+            if (column < 0 || score == 0) return;
+
+            int artist = trackTable.getTrackArtist(trackHandle);
+            if (artist < 0 || artist >= cells.length) return;
+            if (cells[artist] == null) cells[artist] = new long[4];
+            else if (counts[artist] == cells[artist].length)
+                cells[artist] = Arrays.copyOf(cells[artist], counts[artist] * 2);
+            cells[artist][counts[artist]++] = (long) column << 32 | Float.floatToIntBits(score);
+        });
+
+        ScoreTrajectories result = new ScoreTrajectories();
+        result.columnCount = catalog.getRankingsAmount();
+
+        for (int artist=0; artist<cells.length; artist++){
+            if (cells[artist] == null) continue;
+            Arrays.sort(cells[artist], 0, counts[artist]);
+
+            for (int i=0; i<counts[artist]; i++){
+                long cell = cells[artist][i];
+                result.add(artist, (int) (cell >>> 32), Float.intBitsToFloat((int) cell));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Same weights as the analysis: the popularity by 10 for the top 10,
+     * by 1 for the 91-100 and 0 below
+     */
+    static float getAppearanceScore(int chartPosition, int popularity){
+        int decile = (chartPosition-1) / 10;
+        return decile < 0 || decile >= 10 ? 0 : popularity * 0.01f * (10 - decile);
+    }
+
+    /**
+     * Adds an appearance of a ranking after the ones already added
+     */
+    synchronized void add(int artistHandle, int column, int chartPosition, int popularity){
+        float score = getAppearanceScore(chartPosition, popularity);
+        columnCount = Math.max(columnCount, column + 1);
+        if (score != 0) add(artistHandle, column, score);
+    }
+
+    private void add(int artist, int column, double score){
+        if (artist >= sizes.length){
+            int length = Math.max(artist + 1, sizes.length * 2);
+            columns = Arrays.copyOf(columns, length);
+            sums = Arrays.copyOf(sums, length);
+            sizes = Arrays.copyOf(sizes, length);
+        }
+
+        int size = sizes[artist];
+        if (size > 0 && columns[artist][size-1] > column)
+            throw new IllegalArgumentException("Ranking " + column + " added after " + columns[artist][size-1]);
+
+        double previous = size == 0 ? 0 : sums[artist][size-1];
+        if (size > 0 && columns[artist][size-1] == column){
+            sums[artist][size-1] += score;
+            return;
+        }
+
+        if (columns[artist] == null){
+            columns[artist] = new int[4];
+            sums[artist] = new double[4];
+        } else if (size == columns[artist].length){
+            columns[artist] = Arrays.copyOf(columns[artist], size * 2);
+            sums[artist] = Arrays.copyOf(sums[artist], size * 2);
+        }
+
+        columns[artist][size] = column;
+        sums[artist][size] = previous + score;
+        sizes[artist]++;
+    }
+
+    /**
+     * @return the sum of the scores of the artist up to the ranking, included
+     */
+    private double getSum(int artist, int column){
+        if (artist < 0 || artist >= sizes.length || sizes[artist] == 0 || column < 0) return 0;
+        int index = Arrays.binarySearch(columns[artist], 0, sizes[artist], column);
+        if (index < 0) index = -index - 2;
+        return index < 0 ? 0 : sums[artist][index];
+    }
+
+    public synchronized int getColumnCount(){
+        return columnCount;
+    }
+
+    /**
+     * @return the score of the artist as of the ranking
+     */
+    public synchronized float getScore(int artistHandle, int column){
+        return (float) (getSum(artistHandle, column) * 3 / (column + 1));
+    }
+
+    /**
+     * @return how much the score of the artist changed between the rankings
+     */
+    public synchronized float getScoreDelta(int artistHandle, int fromColumn, int toColumn){
+        return getScore(artistHandle, toColumn) - getScore(artistHandle, fromColumn);
+    }
+
+    /**
+     * @param fromColumn first ranking, included
+     * @param toColumn last ranking, excluded
+     * @return the score of the artist as of each ranking of the range
+     */
+    public synchronized float[] getSeries(int artistHandle, int fromColumn, int toColumn){
+        float[] result = new float[Math.max(0, toColumn - fromColumn)];
+        if (result.length == 0) return result;
+
+        double sum = getSum(artistHandle, fromColumn);
+        int size = artistHandle < 0 || artistHandle >= sizes.length ? 0 : sizes[artistHandle];
+        int index = size == 0 ? 0 : Arrays.binarySearch(columns[artistHandle], 0, size, fromColumn);
+        index = index < 0 ? -index - 1 : index + 1;
+
+        for (int column=fromColumn; column<toColumn; column++){
+            // the sum only changes on the rankings where the artist scored
+            if (column > fromColumn && index < size && columns[artistHandle][index] == column)
+                sum = sums[artistHandle][index++];
+            result[column - fromColumn] = (float) (sum * 3 / (column + 1));
+        }
+
+        return result;
+    }
+}
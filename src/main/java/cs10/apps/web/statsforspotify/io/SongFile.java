@@ -1,105 +1,283 @@
 package cs10.apps.web.statsforspotify.io;
 
 import cs10.apps.desktop.statsforspotify.model.Song;
-import cs10.apps.web.statsforspotify.model.CustomList;
-import cs10.apps.web.statsforspotify.utils.Maintenance;
 
-import java.io.*;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * View of one track of the {@link AppearanceLog}. The appearances are filled
+ * by the library while the log is read, so nothing is read from disk here.
+ * They are kept in an {@link AppearanceArray}, and the compacted ones (see
+ * {@link HistoryFile}) are kept encoded until they are needed. A decoded
+ * history is given to the {@link HistoryCache}, which may encode it again
+ * when it's not used.
+ */
 public class SongFile implements Comparable<SongFile> {
-    private String trackName;
-    private CustomList<SongAppearance> appearances;
+    private final int handle;
+    private final String trackId, trackName;
+    private AppearanceArray appearances;
+    private ByteBuffer history;
+    private SongPeak historyPeak;
+    private int historyCount;
     private final ArtistDirectory artistReference;
     private SongPeak peak;
-    private final File file;
+    private final SongLifecycle lifecycle = new SongLifecycle();
     private float[] popularitySumByRank;
+    private int analyzedCount, artistIndex;
+    private HistoryCache cache;
+    private boolean referenced;
 
-    public SongFile(File file, ArtistDirectory artistReference){
-        this.file = file;
+    public SongFile(int handle, String trackId, String trackName, ArtistDirectory artistReference){
+        this.handle = handle;
+        this.trackId = trackId;
+        this.trackName = trackName;
         this.artistReference = artistReference;
+        this.appearances = new AppearanceArray();
+    }
+
+    /**
+     * Sets the compacted appearances, before the ones added from the log
+     */
+    synchronized void setHistory(ByteBuffer block, HistoryCache cache){
+        this.cache = cache;
+        setHistory(block);
+    }
+
+    private void setHistory(ByteBuffer block){
+        HistoryCodec.Header header = HistoryCodec.decodeHeader(block);
+        this.history = block;
+        this.historyCount = header.getCount();
+        this.historyPeak = header.getPeak();
+    }
+
+    /**
+     * While the history is encoded, the array only has the appearances
+     * added after it
+     */
+    private AppearanceArray appearances(){
+        AppearanceArray result;
+        int decodedCount = 0;
+
+        synchronized (this){
+            referenced = true;
+
+            if (history != null){
+                AppearanceArray decoded = HistoryCodec.decode(history, appearances.size());
+                decoded.addAll(appearances);
+                appearances = decoded;
+                history = null;
+                decodedCount = decoded.size();
+            }
 
-        try {
-            this.read();
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
+            result = appearances;
         }
+
+        // outside the lock, the cache locks the songs it evicts
+        if (decodedCount > 0 && cache != null) cache.loaded(this, decodedCount);
+        return result;
     }
 
-    public static File createFile(File parentFolder, Song song) throws IOException {
-        File f = new File(parentFolder, song.getId());
-        System.out.println(f.getPath() + " created: " + f.createNewFile());
-        PrintWriter pw = new PrintWriter(new FileWriter(f, true));
-        pw.println(song.getName());
-        pw.close();
-        return f;
+    /**
+     * Decodes the history now, so the first read doesn't have to
+     */
+    void load(){
+        appearances();
     }
 
-    private void read() throws IOException {
-        appearances = new CustomList<>();
+    /**
+     * Encodes the appearances again and frees the array, unless the song
+     * was read since the last time the cache asked
+     *
+     * @return true if the array was freed (or there was none)
+     */
+    synchronized boolean evict(){
+        if (referenced){
+            referenced = false;
+            return false;
+        }
+
+        if (history == null && !appearances.isEmpty()){
+            setHistory(ByteBuffer.wrap(HistoryCodec.encode(appearances)));
+            appearances = new AppearanceArray();
+        }
 
-        BufferedReader br = new BufferedReader(new FileReader(file));
-        trackName = br.readLine();
+        return true;
+    }
 
-        String line;
-        while ((line = br.readLine()) != null){
-            appearances.add(new SongAppearance(line));
+    ByteBuffer getEncodedHistory(){
+        synchronized (this){
+            if (history != null && appearances.isEmpty()) return history.duplicate();
         }
+
+        return ByteBuffer.wrap(HistoryCodec.encode(appearances()));
+    }
+
+    public synchronized void addAppearance(int chartPosition, int popularity, int rankingCode){
+        appearances.add(chartPosition, popularity, rankingCode);
     }
 
+    /**
+     * Only updates the view. The library writes the appearance in the log.
+     * If the song and its artist are analyzed, the appearance is added to
+     * their analysis right away, so they don't need to be analyzed again.
+     */
     public void update(Song song, long rankingCode) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(file, true))){
-            pw.println(song.getRank()+"--"+song.getPopularity()+"--"+rankingCode);
-            appearances.add(new SongAppearance(song.getPopularity(), rankingCode, song.getRank()));
-        } catch (FileNotFoundException e){
-            System.err.println(file.getPath() + " doesn't exist!");
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
+        boolean first = getAppearancesCount() == 0;
+        boolean incremental = artistReference.isAnalyzed() && (first || isAnalyzed());
+        int previousPeak = 0, previousPopularity = 0;
+
+        if (incremental && !first){
+            previousPeak = peak.getChartPosition();
+            previousPopularity = getPopularity(getLastIndex());
+        }
+
+        synchronized (this){
+            appearances.add(song.getRank(), song.getPopularity(), (int) rankingCode);
+        }
+
+        if (incremental){
+            if (first){
+                popularitySumByRank = new float[20];
+                peak = new SongPeak();
+            }
+
+            analyze(song.getRank(), song.getPopularity(), (int) rankingCode);
+            analyzedCount++;
+            artistReference.onAppearance(previousPeak, previousPopularity, peak.getChartPosition(),
+                    song.getRank(), song.getPopularity());
         }
+
+        artistReference.songChanged(this);
     }
 
+    /**
+     * Only the appearances added since the last analysis (or since the
+     * restored snapshot) are read
+     */
     public void analyzeAppearances(){
-        popularitySumByRank = new float[20];
-        peak = new SongPeak();
-
-        for (SongAppearance a : appearances){
-            if (peak.isPeak(a.getChartPosition())){
-                peak.setChartPosition(a.getChartPosition());
-                peak.setRankingCode(a.getRankingCode());
-                peak.resetTimes();
-                peak.incrementTimes();
-            } else if (peak.getChartPosition() == a.getChartPosition()){
-                peak.incrementTimes();
-            }
+        if (peak == null){
+            popularitySumByRank = new float[20];
+            peak = new SongPeak();
+        }
+
+        AppearanceArray array = appearances();
 
-            int arrayIndex = (a.getChartPosition()-1) / 10;
-            popularitySumByRank[arrayIndex] += a.getPopularity() * 0.01;
+        for (int i=analyzedCount; i<array.size(); i++){
+            analyze(array.getChartPosition(i), array.getPopularity(i), array.getRankingCode(i));
         }
+
+        analyzedCount = array.size();
     }
 
-    public SongAppearance getFirstAppearance(){
-        return appearances.get(0);
+    private void analyze(int chartPosition, int popularity, int rankingCode){
+        if (peak.isPeak(chartPosition)){
+            peak.setChartPosition(chartPosition);
+            peak.setRankingCode(rankingCode);
+            peak.resetTimes();
+            peak.incrementTimes();
+        } else if (peak.getChartPosition() == chartPosition){
+            peak.incrementTimes();
+        }
+
+        int arrayIndex = (chartPosition-1) / 10;
+        popularitySumByRank[arrayIndex] += popularity * 0.01;
+    }
+
+    /**
+     * Restores the analysis of the first appearances from a snapshot
+     */
+    void restoreAnalysis(SongPeak peak, float[] popularitySumByRank, int analyzedCount){
+        this.peak = peak;
+        this.popularitySumByRank = popularitySumByRank;
+        this.analyzedCount = analyzedCount;
+    }
+
+    public boolean isAnalyzed(){
+        return peak != null && analyzedCount == getAppearancesCount();
+    }
+
+    public int getAnalyzedCount() {
+        return analyzedCount;
+    }
+
+    /**
+     * @return the position of the song in its artist directory
+     */
+    int getArtistIndex() {
+        return artistIndex;
+    }
+
+    void setArtistIndex(int artistIndex) {
+        this.artistIndex = artistIndex;
+    }
+
+    /**
+     * @return debut, peak, streaks and re-entries of the song in the saved
+     * rankings, updated when a ranking is ingested
+     */
+    public SongLifecycle getLifecycle() {
+        return lifecycle;
     }
 
     public ArtistDirectory getArtistReference() {
         return artistReference;
     }
 
+    public int getChartPosition(int index){
+        return appearances().getChartPosition(index);
+    }
+
+    public int getPopularity(int index){
+        return appearances().getPopularity(index);
+    }
+
+    public int getRankingCode(int index){
+        return appearances().getRankingCode(index);
+    }
+
+    public int getMediumIndex(){
+        return getAppearancesCount() / 2;
+    }
+
+    public int getPreviousIndex(){
+        return Math.max(0, getAppearancesCount() - 2);
+    }
+
+    public int getLastIndex(){
+        return getAppearancesCount() - 1;
+    }
+
+    public int getRandomIndex(){
+        return ThreadLocalRandom.current().nextInt(getAppearancesCount());
+    }
+
+    /**
+     * The appearance getters return a copy, the primitive getters
+     * above don't allocate
+     */
+    public SongAppearance getFirstAppearance(){
+        return getAppearance(0);
+    }
+
     public SongAppearance getMediumAppearance(){
-        return this.appearances.get(appearances.size() / 2);
+        return getAppearance(getMediumIndex());
     }
 
     public SongAppearance getPreviousAppearance(){
-        int index = Math.max(0, appearances.size() - 2);
-        return appearances.get(index);
+        return getAppearance(getPreviousIndex());
     }
 
     public SongAppearance getRandomAppearance(){
-        return appearances.getRandomElement();
+        return getAppearance(getRandomIndex());
     }
 
     public SongAppearance getLastAppearance(){
-        return appearances.get(appearances.size() - 1);
+        return getAppearance(getLastIndex());
+    }
+
+    public SongAppearance getAppearance(int index){
+        return new SongAppearance(getPopularity(index), getRankingCode(index), getChartPosition(index));
     }
 
     public String getTrackName() {
@@ -107,18 +285,23 @@ public class SongFile implements Comparable<SongFile> {
     }
 
     public String getTrackId() {
-        return file.getName();
+        return trackId;
     }
 
-    public List<SongAppearance> getAppearances() {
-        return appearances;
+    public int getHandle() {
+        return handle;
     }
 
-    public int getAppearancesCount() {
-        return appearances.size();
+    public synchronized int getAppearancesCount() {
+        return (history == null ? 0 : historyCount) + appearances.size();
     }
 
-    public SongPeak getPeak() {
+    /**
+     * Before the analysis, it's the peak saved with the history (if there
+     * are no appearances after it)
+     */
+    public synchronized SongPeak getPeak() {
+        if (peak == null && history != null && appearances.isEmpty()) return historyPeak;
         return peak;
     }
 
@@ -127,7 +310,7 @@ public class SongFile implements Comparable<SongFile> {
     }
 
     public String getArtistName(){
-        return file.getParentFile().getName();
+        return artistReference.getArtistName();
     }
 
     @Override
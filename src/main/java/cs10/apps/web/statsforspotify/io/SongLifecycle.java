@@ -0,0 +1,112 @@
+package cs10.apps.web.statsforspotify.io;
+
+/**
+ * Life of a song in the saved rankings: debut, peak, rankings on chart,
+ * streaks, exits and re-entries. The rankings are given in order (catalog
+ * sequence) as they're saved, so nothing here reads a history.
+ */
+public class SongLifecycle {
+    private int debut = -1, last = -1, peakPosition, peakColumn, peakTimes;
+    private int rankings, runs, runLength, longestRun;
+
+    /**
+     * Adds a ranking with the song, after the ones already added
+     */
+    synchronized void onRanking(int column, int position){
+        if (column <= last) return;
+        if (debut < 0) debut = column;
+
+        if (last >= 0 && column == last + 1) runLength++;
+        else {
+            runs++;
+            runLength = 1;
+        }
+
+        longestRun = Math.max(longestRun, runLength);
+        last = column;
+        rankings++;
+
+        if (peakPosition == 0 || position < peakPosition){
+            peakPosition = position;
+            peakColumn = column;
+            peakTimes = 1;
+        } else if (position == peakPosition){
+            peakTimes++;
+        }
+    }
+
+    synchronized void clear(){
+        debut = last = -1;
+        peakPosition = peakColumn = peakTimes = 0;
+        rankings = runs = runLength = longestRun = 0;
+    }
+
+    /**
+     * @return true if the song is in the last saved ranking
+     */
+    public synchronized boolean isOnChart(){
+        return last >= 0 && last == RankingCatalog.getInstance().getRankingsAmount() - 1;
+    }
+
+    /**
+     * @return sequence of the first ranking with the song (-1 if none)
+     */
+    public synchronized int getDebut() {
+        return debut;
+    }
+
+    public synchronized String getDebutDate(){
+        return getDate(debut);
+    }
+
+    /**
+     * @return the best position of the song (0 if it was never on chart)
+     */
+    public synchronized int getPeakPosition() {
+        return peakPosition;
+    }
+
+    public synchronized String getPeakDate(){
+        return getDate(peakColumn);
+    }
+
+    public synchronized int getPeakTimes() {
+        return peakTimes;
+    }
+
+    /**
+     * @return how many rankings had the song
+     */
+    public synchronized int getRankings() {
+        return rankings;
+    }
+
+    public synchronized int getLongestStreak() {
+        return longestRun;
+    }
+
+    /**
+     * @return the rankings in a row up to the last one (0 if it's not on chart)
+     */
+    public synchronized int getCurrentStreak() {
+        return isOnChart() ? runLength : 0;
+    }
+
+    public synchronized int getExits() {
+        return isOnChart() ? runs - 1 : runs;
+    }
+
+    public synchronized int getReEntries() {
+        return Math.max(0, runs - 1);
+    }
+
+    private String getDate(int column){
+        return rankings == 0 ? null : RankingCatalog.getInstance().getBySequence(column).getDate();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return rankings + " rankings since " + getDebutDate() + ", peak #" + peakPosition +
+                " on " + getPeakDate() + ", longest streak " + longestRun + ", re-entries " + getReEntries();
+    }
+}
@@ -7,6 +7,12 @@ public class SongPeak {
         this.chartPosition = 200;
     }
 
+    public SongPeak(int chartPosition, int rankingCode, int times){
+        this.chartPosition = chartPosition;
+        this.rankingCode = rankingCode;
+        this.times = times;
+    }
+
     public boolean isPeak(int chartPosition){
         return chartPosition < this.chartPosition;
     }
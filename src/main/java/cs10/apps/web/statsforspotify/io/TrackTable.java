@@ -0,0 +1,214 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.utils.Maintenance;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Header table of the store. Every artist and track gets an int handle,
+ * given by the order of its record in this file. The appearance log and
+ * the ranking store only keep handles. A placeholder keeps its handle when
+ * the track enters the library: a promotion record gives it the artist and
+ * the name.
+ */
+public class TrackTable {
+    static final String FILENAME = "tracks.dat";
+    private static final int ARTIST = 'A', TRACK = 'T', PROMOTION = 'P';
+    private static final int NO_ARTIST = -1;
+    private static TrackTable instance;
+
+    private final File file;
+    private final List<String> artistNames = new ArrayList<>();
+    private final List<String> trackIds = new ArrayList<>();
+    private final List<String> trackNames = new ArrayList<>();
+    private final List<Integer> trackArtists = new ArrayList<>();
+    private final Map<String, Integer> handlesById = new HashMap<>();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final DataOutputStream pendingWriter = new DataOutputStream(pending);
+
+    TrackTable(File directory){
+        this.file = new File(directory, FILENAME);
+    }
+
+    public synchronized static TrackTable getInstance(){
+        if (instance == null){
+            IngestJournal.recover();
+            instance = new TrackTable(IOUtils.STORE_DIR);
+
+            try {
+                instance.load();
+            } catch (IOException e){
+                Maintenance.writeErrorFile(e, true);
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Reads the whole table in one pass. An incomplete record at the end
+     * (the app died while writing it) is cut from the file.
+     */
+    void load() throws IOException {
+        if (!file.exists()) return;
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(data));
+        int validLength = 0;
+
+        try {
+            while (dis.available() > 0){
+                int type = dis.read();
+                if (type == ARTIST){
+                    String name = dis.readUTF();
+                    artistNames.add(name);
+                } else if (type == TRACK){
+                    String id = dis.readUTF();
+                    int artist = dis.readInt();
+                    String name = dis.readUTF();
+                    addTrack(id, artist, name);
+                } else if (type == PROMOTION){
+                    int handle = dis.readInt();
+                    int artist = dis.readInt();
+                    String name = dis.readUTF();
+                    if (handle < 0 || handle >= trackIds.size())
+                        throw new IOException(file.getPath() + ": promotion of unknown track " + handle);
+                    promote(handle, artist, name);
+                } else throw new IOException(file.getPath() + ": unknown record type " + type);
+
+                validLength = data.length - dis.available();
+            }
+        } catch (EOFException e){
+            System.err.println(file.getPath() + " ends with an incomplete record");
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")){
+                raf.setLength(validLength);
+            }
+        }
+    }
+
+    public synchronized int registerArtist(String artistName) {
+        try {
+            pendingWriter.writeByte(ARTIST);
+            pendingWriter.writeUTF(artistName);
+        } catch (IOException e){
+            // never thrown by a ByteArrayOutputStream
+            throw new UncheckedIOException(e);
+        }
+
+        artistNames.add(artistName);
+        return artistNames.size() - 1;
+    }
+
+    /**
+     * @return the handle of the track. If it was a placeholder, it's the
+     * same handle, so the rankings saved before still point to the track.
+     */
+    public synchronized int registerTrack(String trackId, int artistHandle, String trackName) {
+        Integer placeholder = handlesById.get(trackId);
+        if (placeholder != null && isPlaceholder(placeholder)){
+            try {
+                pendingWriter.writeByte(PROMOTION);
+                pendingWriter.writeInt(placeholder);
+                pendingWriter.writeInt(artistHandle);
+                pendingWriter.writeUTF(trackName);
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+
+            promote(placeholder, artistHandle, trackName);
+            return placeholder;
+        }
+
+        try {
+            pendingWriter.writeByte(TRACK);
+            pendingWriter.writeUTF(trackId);
+            pendingWriter.writeInt(artistHandle);
+            pendingWriter.writeUTF(trackName);
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+
+        return addTrack(trackId, artistHandle, trackName);
+    }
+
+    /**
+     * Registers a track that is known only by its id (e.g. it appears in an
+     * old ranking but not in the library). It has no artist view.
+     */
+    public int registerPlaceholder(String trackId){
+        return registerTrack(trackId, NO_ARTIST, "");
+    }
+
+    private int addTrack(String trackId, int artistHandle, String trackName){
+        trackIds.add(trackId);
+        trackArtists.add(artistHandle);
+        trackNames.add(trackName);
+        handlesById.put(trackId, trackIds.size() - 1);
+        return trackIds.size() - 1;
+    }
+
+    private void promote(int trackHandle, int artistHandle, String trackName){
+        trackArtists.set(trackHandle, artistHandle);
+        trackNames.set(trackHandle, trackName);
+    }
+
+    /**
+     * Writes every record registered since the last flush with a single write
+     */
+    public synchronized void flush() throws IOException {
+        if (pending.size() == 0) return;
+
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && parent.mkdirs())
+            System.out.println(parent.getPath() + " created");
+
+        try (FileOutputStream fos = new FileOutputStream(file, true)){
+            pending.writeTo(fos);
+        }
+
+        pending.reset();
+    }
+
+    public synchronized int getArtistCount(){
+        return artistNames.size();
+    }
+
+    public synchronized String getArtistName(int artistHandle){
+        return artistNames.get(artistHandle);
+    }
+
+    public synchronized int getTrackCount(){
+        return trackIds.size();
+    }
+
+    /**
+     * @param trackId the Spotify ID of the track
+     * @return the last handle registered for it (-1 if it isn't registered)
+     */
+    public synchronized int getTrackHandle(String trackId){
+        Integer handle = handlesById.get(trackId);
+        return handle == null ? -1 : handle;
+    }
+
+    public synchronized String getTrackId(int trackHandle){
+        return trackIds.get(trackHandle);
+    }
+
+    public synchronized String getTrackName(int trackHandle){
+        return trackNames.get(trackHandle);
+    }
+
+    public synchronized int getTrackArtist(int trackHandle){
+        return trackArtists.get(trackHandle);
+    }
+
+    public boolean isPlaceholder(int trackHandle){
+        return getTrackArtist(trackHandle) == NO_ARTIST;
+    }
+}
@@ -0,0 +1,126 @@
+package cs10.apps.web.statsforspotify.model;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from non-negative ints (symbols or handles) to values, with open
+ * addressing in primitive arrays. Keys aren't boxed and there are no entry
+ * objects.
+ */
+public class IntMap<V> {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private Object[] values;
+    private int size, mask;
+
+    public IntMap(){
+        this(16);
+    }
+
+    public IntMap(int expectedSize){
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity){
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private int indexOf(int key){
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    static int mix(int key){
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key){
+        if (key < 0) return null;
+        return (V) values[indexOf(key)];
+    }
+
+    public boolean containsKey(int key){
+        return key >= 0 && keys[indexOf(key)] == key;
+    }
+
+    /**
+     * @return the previous value of the key (null if there was none)
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value){
+        if (key < 0) throw new IllegalArgumentException("Negative key: " + key);
+        int i = indexOf(key);
+        V previous = (V) values[i];
+
+        if (keys[i] == EMPTY){
+            keys[i] = key;
+            values[i] = value;
+            if (++size * 2 > keys.length) rehash();
+            return null;
+        }
+
+        values[i] = value;
+        return previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key){
+        if (key < 0) return null;
+        int i = indexOf(key);
+        if (keys[i] == EMPTY) return null;
+
+        V removed = (V) values[i];
+        size--;
+
+        // shift back the next keys of the same run, so lookups don't stop at the hole
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask){
+            int home = mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)){
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+
+        keys[hole] = EMPTY;
+        values[hole] = null;
+        return removed;
+    }
+
+    private void rehash(){
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+
+        for (int i=0; i<oldKeys.length; i++){
+            if (oldKeys[i] != EMPTY){
+                int j = indexOf(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void clear(){
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+}
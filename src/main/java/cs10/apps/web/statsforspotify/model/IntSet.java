@@ -0,0 +1,107 @@
+package cs10.apps.web.statsforspotify.model;
+
+import java.util.Arrays;
+
+/**
+ * Hash set of non-negative ints (symbols or handles), with open addressing
+ * in a primitive array
+ */
+public class IntSet {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int size, mask;
+
+    public IntSet(){
+        allocate(16);
+    }
+
+    private void allocate(int capacity){
+        keys = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private int indexOf(int key){
+        int i = IntMap.mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    public boolean contains(int key){
+        return key >= 0 && keys[indexOf(key)] == key;
+    }
+
+    /**
+     * @return true if the key wasn't in the set
+     */
+    public boolean add(int key){
+        if (key < 0) throw new IllegalArgumentException("Negative key: " + key);
+        int i = indexOf(key);
+        if (keys[i] == key) return false;
+
+        keys[i] = key;
+        if (++size * 2 > keys.length) rehash();
+        return true;
+    }
+
+    public void addAll(IntSet other){
+        for (int key : other.keys) if (key != EMPTY) add(key);
+    }
+
+    /**
+     * @return true if the key was in the set
+     */
+    public boolean remove(int key){
+        if (key < 0) return false;
+        int i = indexOf(key);
+        if (keys[i] == EMPTY) return false;
+        size--;
+
+        // shift back the next keys of the same run, so lookups don't stop at the hole
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask){
+            int home = IntMap.mix(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)){
+                keys[hole] = keys[j];
+                hole = j;
+            }
+        }
+
+        keys[hole] = EMPTY;
+        return true;
+    }
+
+    public void removeAll(IntSet other){
+        for (int key : other.keys) if (key != EMPTY) remove(key);
+    }
+
+    private void rehash(){
+        int[] oldKeys = keys;
+        allocate(oldKeys.length * 2);
+
+        for (int key : oldKeys){
+            if (key != EMPTY) keys[indexOf(key)] = key;
+        }
+    }
+
+    public int[] toArray(){
+        int[] result = new int[size];
+        int n = 0;
+        for (int key : keys) if (key != EMPTY) result[n++] = key;
+        return result;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void clear(){
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package cs10.apps.web.statsforspotify.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every distinct string a dense int (its symbol), so sets and maps
+ * can compare ints instead of hashing the string every time. The string is
+ * hashed once when it's interned, and the symbol is kept by its owner.
+ * Symbols only live in memory, the library files use their own handles.
+ * The table never shrinks: it keeps the ids of the library and the ones
+ * seen by the rankings and AutoPlay in this session, which are a few
+ * hundred more. Strings that are only searched use lookup(), so an unknown
+ * id doesn't grow it. Lookups don't lock, only a new symbol does. Null has
+ * no symbol.
+ */
+public class SymbolTable {
+    public static final SymbolTable TRACKS = new SymbolTable();
+    public static final SymbolTable ARTISTS = new SymbolTable();
+    public static final int NONE = -1;
+
+    private final Map<String, Integer> symbols = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[1024];
+    private volatile int size;
+
+    private SymbolTable(){ }
+
+    /**
+     * @return the symbol of the string, a new one if it wasn't interned yet
+     */
+    public int intern(String name){
+        if (name == null) return NONE;
+        Integer symbol = symbols.get(name);
+        if (symbol != null) return symbol;
+
+        synchronized (this){
+            symbol = symbols.get(name);
+            if (symbol != null) return symbol;
+
+            if (size == names.length) names = Arrays.copyOf(names, size * 2);
+            names[size] = name;
+            // the name is stored before the symbol can be found
+            symbols.put(name, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @return the symbol of the string, or NONE if it wasn't interned (so
+     * it's in no set or map)
+     */
+    public int lookup(String name){
+        if (name == null) return NONE;
+        Integer symbol = symbols.get(name);
+        return symbol == null ? NONE : symbol;
+    }
+
+    public String getName(int symbol){
+        return names[symbol];
+    }
+
+    public int size(){
+        return size;
+    }
+}
@@ -0,0 +1,106 @@
+package cs10.apps.web.statsforspotify.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks an index with probability proportional to its weight. The weights
+ * are kept in a Fenwick tree, so changing one weight and picking an index
+ * are both O(log n), and nothing has to be rebuilt when a weight changes.
+ * Negative and NaN weights count as 0. If every weight is 0, the pick is
+ * uniform.
+ */
+public class WeightedSampler {
+    private double[] weights, tree;
+    private int size;
+
+    public WeightedSampler(){
+        this(16);
+    }
+
+    public WeightedSampler(int capacity){
+        this.weights = new double[Math.max(1, capacity)];
+        this.tree = new double[weights.length + 1];
+    }
+
+    /**
+     * @return the index of the new weight
+     */
+    public synchronized int add(double weight){
+        if (size == weights.length) grow();
+        weight = clean(weight);
+        weights[size] = weight;
+
+        // the node of the new index covers the range that ends on it
+        int node = size + 1;
+        tree[node] = weight + prefix(size) - prefix(node - (node & -node));
+        return size++;
+    }
+
+    public synchronized void set(int index, double weight){
+        double delta = clean(weight) - weights[index];
+        if (delta == 0) return;
+
+        weights[index] += delta;
+        for (int i = index + 1; i <= size; i += i & -i) tree[i] += delta;
+    }
+
+    public synchronized double getWeight(int index){
+        return weights[index];
+    }
+
+    public synchronized double getTotal(){
+        return prefix(size);
+    }
+
+    public synchronized int size(){
+        return size;
+    }
+
+    /**
+     * @return a random index, or -1 if there are none
+     */
+    public synchronized int sample(Random random){
+        if (size == 0) return -1;
+        double total = prefix(size);
+        if (!(total > 0)) return random.nextInt(size);
+
+        double target = random.nextDouble() * total;
+        int position = 0;
+
+        // goes down the tree, skipping the ranges whose sum is below the target
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1){
+            int next = position + step;
+            if (next <= size && tree[next] <= target){
+                position = next;
+                target -= tree[next];
+            }
+        }
+
+        // rounding can leave the target past the last weight, or on an empty one
+        position = Math.min(position, size - 1);
+        while (position > 0 && weights[position] == 0) position--;
+        return position;
+    }
+
+    private double prefix(int count){
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    private void grow(){
+        weights = Arrays.copyOf(weights, weights.length * 2);
+        tree = new double[weights.length + 1];
+
+        for (int i=1; i<=size; i++){
+            tree[i] += weights[i-1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) tree[parent] += tree[i];
+        }
+    }
+
+    private static double clean(double weight){
+        return weight > 0 && !Double.isInfinite(weight) ? weight : 0;
+    }
+}
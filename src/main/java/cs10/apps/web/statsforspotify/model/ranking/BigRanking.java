@@ -4,7 +4,6 @@ import com.wrapper.spotify.model_objects.specification.Paging;
 import com.wrapper.spotify.model_objects.specification.Track;
 import cs10.apps.desktop.statsforspotify.model.Ranking;
 import cs10.apps.desktop.statsforspotify.model.Song;
-import cs10.apps.desktop.statsforspotify.model.Status;
 import cs10.apps.web.statsforspotify.utils.CommonUtils;
 
 import java.util.ArrayList;
@@ -13,10 +12,12 @@ import java.util.List;
 
 public class BigRanking extends Ranking {
     private static final int TOP_INDEX = 1;
+    public static final long EMPTY_FINGERPRINT = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
     private BigRanking rankingToCompare;
     private String date;
 
-    private long code;
+    private long code, fingerprint = EMPTY_FINGERPRINT;
     private int repeatedQuantity;
 
     public BigRanking(){ }
@@ -41,18 +42,8 @@ public class BigRanking extends Ranking {
         }
     }
 
-    public void updateAllStatus(BigRanking rankingToCompare){
-        for (Song song : this){
-            Song prevS = rankingToCompare.getSong(song.getId());
-            if (prevS == null) song.setStatus(Status.NEW);
-            else {
-                prevS.setMark(true);
-                song.setChange(prevS.getRank() - song.getRank());
-                if (song.getChange() == 0) song.setStatus(Status.NOTHING);
-                else if (song.getChange() < 0) song.setStatus(Status.DOWN);
-                else song.setStatus(Status.UP);
-            }
-        }
+    public RankingDiff updateAllStatus(BigRanking rankingToCompare){
+        return RankingDiff.compare(this, rankingToCompare);
     }
 
     /**
@@ -60,28 +51,7 @@ public class BigRanking extends Ranking {
      * @param actualRanking the current user's ranking
      */
     public void retrieveAllStatus(BigRanking actualRanking){
-        for (Song song : this){
-            Song prevS = actualRanking.getSong(song.getId());
-            if (prevS == null) song.setStatus(Status.LEFT);
-            else {
-                // inverted
-                song.setChange(song.getRank() - prevS.getRank());
-                if (song.getChange() == 0) song.setStatus(Status.NOTHING);
-                else if (song.getChange() < 0) song.setStatus(Status.DOWN);
-                else song.setStatus(Status.UP);
-            }
-        }
-    }
-
-    public List<Song> getNonMarked(){
-        List<Song> result = new ArrayList<>();
-
-        for (Song song : this){
-            if (song.isNotMarked())
-                result.add(song);
-        }
-
-        return result;
+        RankingDiff.retrieve(this, actualRanking);
     }
 
     public void addRankingToCompare(BigRanking ranking){
@@ -110,14 +80,8 @@ public class BigRanking extends Ranking {
     }
 
     private boolean alreadyAdded(String id, int limit){
-        int checked = 0;
-
-        for (Song s : this){
-            if (s.getId().equals(id)) return true;
-            if (++checked == limit) return false;
-        }
-
-        return false;
+        Song s = getSong(id);
+        return s != null && s.getRank() - TOP_INDEX < limit;
     }
 
     private void add(Track track){
@@ -128,20 +92,12 @@ public class BigRanking extends Ranking {
         song.setArtists(CommonUtils.combineArtists(track.getArtists()));
         song.setImageUrl(track.getAlbum().getImages()[0].getUrl());
         song.setPopularity(track.getPopularity());
-        song.setStatus(Status.NOTHING);
 
         // compare with previous ranking
-        Song prevS = rankingToCompare.getSong(track.getId());
-        if (prevS == null) song.setStatus(Status.NEW);
-        else {
-            prevS.setMark(true);
-            song.setChange(prevS.getRank() - song.getRank());
-            if (song.getChange() == 0) song.setStatus(Status.NOTHING);
-            else if (song.getChange() < 0) song.setStatus(Status.DOWN);
-            else song.setStatus(Status.UP);
-        }
+        RankingDiff.setStatus(song, rankingToCompare.getSong(track.getId()));
 
         //code += song.getPopularity();
+        fingerprint = updateFingerprint(fingerprint, song.getId());
         super.add(song);
     }
 
@@ -154,22 +110,39 @@ public class BigRanking extends Ranking {
         return (int) (code / 16);
     }
 
-    @Override
-    public boolean addAll(Collection<? extends Song> c) {
-        for (Song s : c) this.add(s);
-        return true;
-    }
-
     @Override
     public boolean add(Song song) {
         if (size() % 10 == 0) code += song.getPopularity();
+        fingerprint = updateFingerprint(fingerprint, song.getId());
         return super.add(song);
     }
 
+    /**
+     * Unlike the code, it only depends on the track ids and their order,
+     * so the same ranking has the same fingerprint when the popularity changes
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * FNV-1a hash of the track id, chained to the fingerprint of the
+     * previous tracks
+     */
+    public static long updateFingerprint(long fingerprint, String trackId){
+        if (trackId != null) for (int i=0; i<trackId.length(); i++){
+            fingerprint ^= trackId.charAt(i);
+            fingerprint *= FNV_PRIME;
+        }
+
+        fingerprint ^= '\n';
+        return fingerprint * FNV_PRIME;
+    }
+
     public List<String> getLefts(){
         List<String> ids = new ArrayList<>();
         for (Song s : rankingToCompare){
-            if (s.isNotMarked()){
+            if (!contains(s.getIdSymbol())){
                 ids.add(s.getId());
             }
         }
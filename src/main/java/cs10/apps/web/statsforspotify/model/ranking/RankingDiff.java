@@ -0,0 +1,124 @@
+package cs10.apps.web.statsforspotify.model.ranking;
+
+import cs10.apps.desktop.statsforspotify.model.Ranking;
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.desktop.statsforspotify.model.Status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Differences between a ranking and a previous one. Every song is looked up
+ * by id in the other ranking, so it's one pass over each of them.
+ */
+public class RankingDiff {
+    private final List<Song> entries = new ArrayList<>();
+    private final List<Song> lefts = new ArrayList<>();
+    private Song biggestGain, biggestLoss;
+    private int gains, losses, size, previousSize;
+
+    private RankingDiff(){ }
+
+    /**
+     * Sets the status and change of every song of the current ranking
+     */
+    public static RankingDiff compare(Ranking current, Ranking previous){
+        RankingDiff diff = new RankingDiff();
+
+        for (Song song : current){
+            setStatus(song, previous.getSong(song.getIdSymbol()));
+            if (song.getStatus() == Status.NEW) diff.entries.add(song);
+            else if (song.getChange() > 0){
+                diff.gains++;
+                if (diff.biggestGain == null || song.getChange() > diff.biggestGain.getChange())
+                    diff.biggestGain = song;
+            } else if (song.getChange() < 0){
+                diff.losses++;
+                if (diff.biggestLoss == null || song.getChange() < diff.biggestLoss.getChange())
+                    diff.biggestLoss = song;
+            }
+        }
+
+        for (Song song : previous){
+            if (!current.contains(song.getIdSymbol())) diff.lefts.add(song);
+        }
+
+        diff.size = current.size();
+        diff.previousSize = previous.size();
+        return diff;
+    }
+
+    /**
+     * Inverted operation of compare: sets the status of the previous ranking
+     * songs, LEFT if they aren't in the current ranking
+     */
+    public static void retrieve(Ranking previous, Ranking current){
+        for (Song song : previous){
+            Song now = current.getSong(song.getIdSymbol());
+            if (now == null) song.setStatus(Status.LEFT);
+            else setStatus(now, song, song);
+        }
+    }
+
+    /**
+     * @param previous the same song in the previous ranking (null if it wasn't)
+     */
+    static void setStatus(Song song, Song previous){
+        if (previous == null) song.setStatus(Status.NEW);
+        else setStatus(song, previous, song);
+    }
+
+    private static void setStatus(Song current, Song previous, Song target){
+        target.setChange(previous.getRank() - current.getRank());
+        if (target.getChange() == 0) target.setStatus(Status.NOTHING);
+        else if (target.getChange() < 0) target.setStatus(Status.DOWN);
+        else target.setStatus(Status.UP);
+    }
+
+    /**
+     * @return songs that weren't in the previous ranking
+     */
+    public List<Song> getEntries() {
+        return entries;
+    }
+
+    public List<Song> getLefts() {
+        return lefts;
+    }
+
+    /**
+     * @return the song that went up the most (null if none went up)
+     */
+    public Song getBiggestGain() {
+        return biggestGain;
+    }
+
+    /**
+     * @return the song that went down the most (null if none went down)
+     */
+    public Song getBiggestLoss() {
+        return biggestLoss;
+    }
+
+    /**
+     * @return songs that went up
+     */
+    public int getGains() {
+        return gains;
+    }
+
+    /**
+     * @return songs that went down
+     */
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getPreviousSize() {
+        return previousSize;
+    }
+}
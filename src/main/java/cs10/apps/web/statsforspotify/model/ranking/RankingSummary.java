@@ -0,0 +1,111 @@
+package cs10.apps.web.statsforspotify.model.ranking;
+
+/**
+ * Changes of a ranking against the one saved before it
+ */
+public class RankingSummary {
+    private final int gains, losses, entries, reEntries, exits, size, previousSize;
+    private final int biggestGain, biggestGainChange, biggestLoss, biggestLossChange;
+
+    public RankingSummary(int gains, int losses, int entries, int reEntries, int exits, int size, int previousSize,
+                          int biggestGain, int biggestGainChange, int biggestLoss, int biggestLossChange) {
+        this.gains = gains;
+        this.losses = losses;
+        this.entries = entries;
+        this.reEntries = reEntries;
+        this.exits = exits;
+        this.size = size;
+        this.previousSize = previousSize;
+        this.biggestGain = biggestGain;
+        this.biggestGainChange = biggestGainChange;
+        this.biggestLoss = biggestLoss;
+        this.biggestLossChange = biggestLossChange;
+    }
+
+    /**
+     * @param reEntries entries of the diff that were in an older ranking
+     * @param biggestGain track handle of the biggest gain of the diff (-1 if none)
+     * @param biggestLoss track handle of the biggest loss of the diff (-1 if none)
+     */
+    public RankingSummary(RankingDiff diff, int reEntries, int biggestGain, int biggestLoss) {
+        this(diff.getGains(), diff.getLosses(), diff.getEntries().size() - reEntries, reEntries,
+                diff.getLefts().size(), diff.getSize(), diff.getPreviousSize(),
+                biggestGain, diff.getBiggestGain() == null ? 0 : diff.getBiggestGain().getChange(),
+                biggestLoss, diff.getBiggestLoss() == null ? 0 : diff.getBiggestLoss().getChange());
+    }
+
+    /**
+     * @return songs that went up
+     */
+    public int getGains() {
+        return gains;
+    }
+
+    /**
+     * @return songs that went down
+     */
+    public int getLosses() {
+        return losses;
+    }
+
+    /**
+     * @return songs that were never in a ranking before
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return songs that weren't in the previous ranking but were in an older one
+     */
+    public int getReEntries() {
+        return reEntries;
+    }
+
+    /**
+     * @return songs of the previous ranking that aren't in this one
+     */
+    public int getExits() {
+        return exits;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getPreviousSize() {
+        return previousSize;
+    }
+
+    /**
+     * @return track handle of the song that went up the most, or -1 if none did
+     */
+    public int getBiggestGain() {
+        return biggestGain;
+    }
+
+    public int getBiggestGainChange() {
+        return biggestGainChange;
+    }
+
+    /**
+     * @return track handle of the song that went down the most, or -1 if none did
+     */
+    public int getBiggestLoss() {
+        return biggestLoss;
+    }
+
+    /**
+     * @return how many positions the biggest loss went down (negative)
+     */
+    public int getBiggestLossChange() {
+        return biggestLossChange;
+    }
+
+    /**
+     * @return the share of the ranking that wasn't in the previous one
+     */
+    public float getChurnRate() {
+        return size == 0 ? 0 : (float) (entries + reEntries) / size;
+    }
+}
@@ -3,6 +3,10 @@ package cs10.apps.web.statsforspotify.model.ranking;
 public class SimpleRanking implements Comparable<SimpleRanking> {
     private final String code;
     private String date;
+    private int size, sequence;
+    private float averagePopularity;
+    private long fingerprint;
+    private RankingSummary summary;
 
     public SimpleRanking(String code) {
         this.code = code;
@@ -12,6 +16,10 @@ public class SimpleRanking implements Comparable<SimpleRanking> {
         return code;
     }
 
+    public long getCodeAsLong() {
+        return Long.parseLong(code);
+    }
+
     public String getDate() {
         return date;
     }
@@ -20,8 +28,56 @@ public class SimpleRanking implements Comparable<SimpleRanking> {
         this.date = date;
     }
 
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return position of this ranking in the saving order, starting at 0
+     */
+    public int getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
+    public float getAveragePopularity() {
+        return averagePopularity;
+    }
+
+    public void setAveragePopularity(float averagePopularity) {
+        this.averagePopularity = averagePopularity;
+    }
+
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(long fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @return the changes against the previous ranking, or null if they
+     * weren't summarized yet
+     */
+    public RankingSummary getSummary() {
+        return summary;
+    }
+
+    public void setSummary(RankingSummary summary) {
+        this.summary = summary;
+    }
+
     @Override
     public int compareTo(SimpleRanking o) {
-        return this.getDate().compareTo(o.getDate());
+        int comp = this.getDate().compareTo(o.getDate());
+        return comp == 0 ? Integer.compare(sequence, o.getSequence()) : comp;
     }
 }
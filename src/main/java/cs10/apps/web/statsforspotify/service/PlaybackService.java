@@ -9,7 +9,7 @@ import cs10.apps.web.statsforspotify.app.AppOptions;
 import cs10.apps.web.statsforspotify.app.DevelopException;
 import cs10.apps.web.statsforspotify.app.PersonalChartApp;
 import cs10.apps.web.statsforspotify.core.LastFmIntegration;
-import cs10.apps.web.statsforspotify.model.BlockedItem;
+import cs10.apps.web.statsforspotify.io.BlacklistStore;
 import cs10.apps.web.statsforspotify.model.LastFmData;
 import cs10.apps.web.statsforspotify.utils.ApiUtils;
 import cs10.apps.web.statsforspotify.utils.CommonUtils;
@@ -35,7 +35,7 @@ public class PlaybackService implements Runnable {
     private ScheduledExecutorService progressScheduler;
     private Set<String> avoidInitials;
     private Thread lastFmThread;
-    private final Set<BlockedItem> blacklist;
+    private final BlacklistStore blacklist;
     private static final int AUTO_UPDATE_RATE = 24;
     private boolean running, canSkip, userAgreedSkip, userWasAskedForSkip;
     private int time, requestsCount, idleCount;
@@ -44,7 +44,7 @@ public class PlaybackService implements Runnable {
 
     public PlaybackService(ApiUtils apiUtils, JTable table, JFrame frame, CustomPlayer player) {
         progressScheduler = Executors.newSingleThreadScheduledExecutor();
-        this.blacklist = IOUtils.loadBlackList();
+        this.blacklist = BlacklistStore.getInstance();
         this.apiUtils = apiUtils;
         this.table = table;
         this.frame = frame;
@@ -59,14 +59,9 @@ public class PlaybackService implements Runnable {
         if (apiUtils.getRankingImprover().isTrackBlocked(trackId))
             return true;
 
-        for (BlockedItem bi : blacklist){
-            if (bi.getId().equals(trackId)){
-                bi.decrementTimesUntilUnlock();
-                if (bi.getTimesUntilUnlock() == 0) blacklist.remove(bi);
-                IOUtils.saveBlacklist(blacklist);
-                playNext();
-                return true;
-            }
+        if (blacklist.decrement(trackId)){
+            playNext();
+            return true;
         }
 
         return false;
@@ -4,8 +4,7 @@ import com.wrapper.spotify.model_objects.specification.ArtistSimplified;
 import com.wrapper.spotify.model_objects.specification.Track;
 import com.wrapper.spotify.model_objects.specification.TrackSimplified;
 import cs10.apps.desktop.statsforspotify.model.Song;
-import cs10.apps.desktop.statsforspotify.model.Status;
-import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.model.ranking.RankingDiff;
 import cs10.apps.web.statsforspotify.view.OptionPanes;
 
 import javax.imageio.ImageIO;
@@ -29,8 +28,11 @@ public class CommonUtils {
 
     public static void combineWithoutRepeats(Track[] tracks1, Track[] tracks2, int maxSize,
                                                     List<Track> result, List<Track> repeats){
+        Set<String> ids = new HashSet<>();
+        for (Track value : tracks1) ids.add(value.getId());
+
         for (Track track : tracks2){
-            if (!alreadyExists(tracks1, track)) {
+            if (!ids.contains(track.getId())) {
                 result.add(track);
                 if (result.size() == maxSize)
                     break;
@@ -38,15 +40,6 @@ public class CommonUtils {
         }
     }
 
-    private static boolean alreadyExists(Track[] array, Track track){
-        for (Track value : array) {
-            if (value.getId().equals(track.getId()))
-                return true;
-        }
-
-        return false;
-    }
-
     public static ImageIcon downloadImage(String url, int size){
         try {
             BufferedImage bi = ImageIO.read(new URL(url));
@@ -86,48 +79,23 @@ public class CommonUtils {
     /**
      * Informs biggest gain and loss, and list the songs that left the chart
      */
-    public static void summary(BigRanking bigRanking, BigRanking compare, ApiUtils apiUtils){
-        int bigLoss = 0, bigGain = 0;
-        Song songBigLoss = null, songBigGain = null;
+    public static void summary(RankingDiff diff, ApiUtils apiUtils){
         StringBuilder sb = new StringBuilder();
-
-        for (Song s : bigRanking){
-            if (s.getChange() == 0) continue;
-            if (s.getChange() < 0){
-                if (s.getChange() < bigLoss){
-                    bigLoss = s.getChange();
-                    songBigLoss = s;
-                }
-            } else {
-                if (s.getChange() > bigGain){
-                    bigGain = s.getChange();
-                    songBigGain = s;
-                }
-            }
-        }
+        Song songBigGain = diff.getBiggestGain(), songBigLoss = diff.getBiggestLoss();
 
         if (songBigGain != null){
             sb.append("Biggest Gain: ").append(songBigGain)
-                    .append(" (+").append(bigGain).append(")").append('\n');
+                    .append(" (+").append(songBigGain.getChange()).append(")").append('\n');
         }
 
         if (songBigLoss != null){
             sb.append("Biggest Loss: ").append(songBigLoss)
-                    .append(" (").append(bigLoss).append(")").append("\n\n");
+                    .append(" (").append(songBigLoss.getChange()).append(")").append("\n\n");
         }
 
-        List<Song> nonMarkedSongs = compare.getNonMarked();
+        List<Song> nonMarkedSongs = diff.getLefts();
         sb.append(nonMarkedSongs.size()).append(" songs left the chart").append('\n');
-
-        int entries = 0;
-
-        for (Song s : bigRanking){
-            if (s.getStatus() == Status.NEW){
-                entries++;
-            }
-        }
-
-        sb.append(entries).append(" entries or re-entries");
+        sb.append(diff.getEntries().size()).append(" entries or re-entries");
 
         /*if (!nonMarkedSongs.isEmpty()){
             sb.append("Songs that left the chart: ").append('\n');
@@ -1,32 +1,28 @@
 package cs10.apps.web.statsforspotify.utils;
 
 import com.wrapper.spotify.model_objects.specification.Track;
-import cs10.apps.desktop.statsforspotify.model.Ranking;
 import cs10.apps.desktop.statsforspotify.model.Song;
 import cs10.apps.web.statsforspotify.app.AppOptions;
 import cs10.apps.web.statsforspotify.io.Library;
-import cs10.apps.web.statsforspotify.model.Artist;
-import cs10.apps.web.statsforspotify.model.BlockedItem;
+import cs10.apps.web.statsforspotify.io.RankingCatalog;
+import cs10.apps.web.statsforspotify.io.RankingStore;
+import cs10.apps.web.statsforspotify.io.SongFile;
 import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
 import cs10.apps.web.statsforspotify.model.ranking.SimpleRanking;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 public class IOUtils {
-    private static final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-    private static final String BLACKLIST_FILE = "blacklist.dat";
     private static final String ICON_PATH = "/icons/";
     private static final String APP_DATA_FILE = "appdata.bin";
-    private static final String LIBRARY_FOLDER = "library";
-    private static final String RANKING_FOLDER = "ranking";
+    public static final String RANKING_FOLDER = "ranking";
+    public static final File STORE_DIR = new File("store//");
 
     public static boolean isFirstTime(){
-        return ! new File(RANKING_FOLDER).exists();
+        return RankingCatalog.getInstance().getRankingsAmount() == 0;
     }
 
     // ------------------------------ RANKING CODES ----------------------------------
@@ -76,108 +72,50 @@ public class IOUtils {
 
     // ----------------------------------- SONG FILE ----------------------------------
 
-    private static void updateSongFile(String artist, Song song, long code){
-        artist = artist.replace("/\\","");
-        boolean header = false;
-
-        File directory = new File(LIBRARY_FOLDER+"//"+artist);
-        if (!directory.exists()){
-            System.out.println(directory.getPath() + " created: " + directory.mkdirs());
-        }
-
-        File songFile = new File(directory.getAbsolutePath() + "//" + song.getId());
-        if (!songFile.exists()){
-            try {
-                header = songFile.createNewFile();
-            } catch (IOException e){
-                Maintenance.writeErrorFile(e, false);
-            }
-        }
-
-        try (PrintWriter pw = new PrintWriter(new FileWriter(songFile, true))){
-            if (header) pw.println(song.getName());
-            pw.println(song.getRank()+"--"+song.getPopularity()+"--"+code);
-        } catch (FileNotFoundException e){
-            System.err.println(songFile.getPath() + " doesn't exist!");
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        }
-    }
-
     public static int getTimesOnRanking(String artists, String id){
-        String artist = artists.split(", ")[0].replace("/\\","");
-        File file = new File(LIBRARY_FOLDER+"//"+artist+"//"+id);
-        int cant = 0;
-
-        if (file.exists()) try (BufferedReader br = new BufferedReader(new FileReader(file))){
-            // skip header
-            br.readLine();
-
-            // read info
-            while (br.readLine() != null) cant++;
-        } catch (FileNotFoundException e) {
-            System.err.println(file.getPath() + " doesn't exist!");
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        }
-
-        return cant;
+        SongFile songFile = Library.getInstance(null).findById(id);
+        return songFile == null ? 0 : songFile.getAppearancesCount();
     }
 
     // ----------------------------- RANKING --------------------------------------
 
     public static int getRankingsAmount(){
-        File[] files = new File(RANKING_FOLDER).listFiles();
-        if (files == null || files.length == 0) return 1;
-        else return files.length;
+        return Math.max(1, RankingCatalog.getInstance().getRankingsAmount());
     }
 
-    public static String getRankingDate(int code){
-        return getRankingDate(String.valueOf(code));
+    /**
+     * @return the date of the ranking in the catalog, or null if it wasn't saved
+     */
+    public static String getRankingDate(long code){
+        return RankingCatalog.getInstance().getDate(code);
     }
 
     public static String getRankingDate(String code){
-        String filename = RANKING_FOLDER+"//"+ code;
-        String date = null;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))){
-            date = br.readLine();
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        }
-
-        return date;
+        return getRankingDate(Long.parseLong(code));
     }
 
     public static BigRanking getRanking(String code, boolean detailed) {
-        String filename = RANKING_FOLDER+"//"+ code;
+        long rankingCode = Long.parseLong(code);
+        if (detailed) return Library.getInstance(null).getRanking(rankingCode, null);
+
+        RankingStore store = RankingStore.getInstance();
         BigRanking ranking = new BigRanking();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))){
-            // header
-            ranking.setDate(br.readLine());
-            ranking.setCode(Long.parseLong(code));
-
-            // read ranking
-            String line;
-            while ((line = br.readLine()) != null){
-                String[] params = line.split("--");
-                Song song = new Song();
-                song.setRank(Integer.parseInt(params[0]));
-                song.setId(params[1]);
-                if (detailed) retrieveData(params[1], code, song);
-                ranking.add(song);
-            }
-        } catch (FileNotFoundException e){
+        if (!store.contains(rankingCode)){
             System.err.println("The previous ranking " + code + " doesn't exist!");
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        } catch (NumberFormatException e){
-            System.err.println("The rank column has an invalid format");
-        } catch (ArrayIndexOutOfBoundsException e){
-            System.err.println("The rows of Previous Ranking have an invalid format");
+            return ranking;
+        }
+
+        ranking.setDate(store.getDate(rankingCode));
+
+        for (int i=0; i<store.getSize(rankingCode); i++){
+            Song song = new Song();
+            song.setRank(store.getRank(rankingCode, i));
+            song.setId(store.getTrackId(rankingCode, i));
+            ranking.add(song);
         }
 
+        ranking.setCode(rankingCode);
         return ranking;
     }
 
@@ -188,40 +126,31 @@ public class IOUtils {
         else return getRanking(String.valueOf(code), false);
     }
 
-    public static List<String> getRankingSongIds(int code, int limit){
-        File file = new File(RANKING_FOLDER+"//"+ code);
-        List<String> result = new ArrayList<>(limit);
-        try (BufferedReader br = new BufferedReader(new FileReader(file))){
-            br.readLine();
-            String line;
-            while (result.size() < limit && (line = br.readLine()) != null){
-                String[] params = line.split("--");
-                result.add(params[1]);
-            }
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, true);
-        }
-
+    public static List<String> getRankingSongIds(long code, int limit){
+        RankingStore store = RankingStore.getInstance();
+        int size = Math.min(limit, store.getSize(code));
+        List<String> result = new ArrayList<>(size);
+        for (int i=0; i<size; i++) result.add(store.getTrackId(code, i));
         return result;
     }
 
-    public static List<String> getRelationIds(int rankingCode, int position, Library library){
+    public static List<String> getRelationIds(long rankingCode, int position, Library library){
+        RankingStore store = RankingStore.getInstance();
         List<String> result = new ArrayList<>(8);
-        List<String> ids = getRankingSongIds(rankingCode, position + 8);
 
         if (position >= 9){
-            String id1 = ids.get(position-9);
-            String id2 = ids.get(position-5);
-            String id3 = ids.get(position-3);
-            String id4 = ids.get(position-2);
-            result.add(library.selectBestId(id1, id2, id3, id4));
-        }
-
-        if (ids.size() == position + 8){
-            String id1 = ids.get(position);
-            String id2 = ids.get(position+1);
-            String id3 = ids.get(position+3);
-            String id4 = ids.get(position+7);
+            String id1 = store.getTrackId(rankingCode, position-9);
+            String id2 = store.getTrackId(rankingCode, position-5);
+            String id3 = store.getTrackId(rankingCode, position-3);
+            String id4 = store.getTrackId(rankingCode, position-2);
+            if (id1 != null && id4 != null) result.add(library.selectBestId(id1, id2, id3, id4));
+        }
+
+        if (store.getSize(rankingCode) >= position + 8){
+            String id1 = store.getTrackId(rankingCode, position);
+            String id2 = store.getTrackId(rankingCode, position+1);
+            String id3 = store.getTrackId(rankingCode, position+3);
+            String id4 = store.getTrackId(rankingCode, position+7);
             result.add(library.selectBestId(id1, id2, id3, id4));
         }
 
@@ -229,189 +158,33 @@ public class IOUtils {
     }
 
     public static SimpleRanking[] getAvailableRankings(){
-        File[] rankFiles = new File(RANKING_FOLDER).listFiles();
-        if (rankFiles != null){
-            SimpleRanking[] result = new SimpleRanking[rankFiles.length];
-            for (int i=0; i<rankFiles.length; i++) {
-                result[i] = new SimpleRanking(rankFiles[i].getName());
-                result[i].setDate(getRankingDate(rankFiles[i].getName()));
-            }
-
-            return result;
-        }
-
-        return new SimpleRanking[0];
-    }
-
-    public static void save(Ranking ranking, boolean replace){
-        File directory = new File(RANKING_FOLDER);
-
-        if (!directory.exists() && directory.mkdirs())
-            System.out.println(directory.getAbsolutePath() + " has been just created");
-
-        File file = new File(RANKING_FOLDER + "//" + ranking.getCode());
-
-        if (!replace & file.exists()) return;
-        try (PrintWriter writer = new PrintWriter(new FileWriter(file))){
-            writer.println(dateFormat.format(new Date(System.currentTimeMillis())));
-            for (Song s : ranking) writer.println(s.getRank() + "--" + s.getId());
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        }
-    }
-
-    // ------------------------------- SEARCH ---------------------------------
-
-    public static void retrieveData(String trackId, String rankingCode, Song song){
-        File[] artistFolders = new File(LIBRARY_FOLDER).listFiles();
-
-        if (artistFolders != null) for (File folder : artistFolders){
-            File[] tracksF = folder.listFiles();
-            if (tracksF != null) for (File t : tracksF){
-                if (t.getName().equals(trackId)){
-                    song.setId(t.getName());
-                    song.setArtists(folder.getName());
-                    retrieveData(t, rankingCode, song);
-                    return;
-                }
-            }
-        }
+        return RankingCatalog.getInstance().getAll();
     }
 
     // -------------------------------- ARTIST ------------------------------------
 
     public static boolean existsArtist(String name){
-        return new File(LIBRARY_FOLDER+"//"+name).exists();
-    }
-
-    public static float[] getDetailedArtistScores(String artist){
-        artist = artist.replace("/\\","");
-        float[] result = new float[10];
-
-        File file = new File(LIBRARY_FOLDER+"//"+artist);
-        File[] songsFiles = file.listFiles();
-        if (songsFiles != null) {
-            for (File f : songsFiles)
-                getSongScore(f, result);
-        }
-
-        return result;
-    }
-
-    public static float getArtistScore(String artist){
-        float[] scores = IOUtils.getDetailedArtistScores(artist);
-        float score = 0;
-
-        for (int i=1; i<=scores.length; i++){
-            score += scores[10-i] * i;
-        }
-
-        return score * 3 / IOUtils.getRankingsAmount();
-    }
-
-    public static Artist[] getAllArtistsScore(){
-        File[] folders = new File(LIBRARY_FOLDER).listFiles();
-        if (folders == null) return null;
-
-        Artist[] result = new Artist[folders.length];
-        for (int i=0; i<result.length; i++){
-            result[i] = new Artist();
-            result[i].setName(folders[i].getName());
-            result[i].setScore(getArtistScore(folders[i].getName()));
-        }
-
-        return result;
+        return Library.getInstance(null).getArtistByName(name) != null;
     }
 
     // ------------------------------- READ SONG FILE --------------------------------
 
-    public static void retrieveData(File songFile, String rankingCode, Song song){
-
-        try (BufferedReader br = new BufferedReader(new FileReader(songFile))){
-            song.setName(br.readLine());
-            String line;
-
-            while ((line = br.readLine()) != null){
-                String[] params = line.split("--");
-                if (params[2].equals(rankingCode))
-                    song.setPopularity(Integer.parseInt(params[1]));
-            }
-
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e){
-            System.err.println("Invalid format: " + songFile.getPath());
-        }
-    }
-
     public static int getFirstPopularity(Track track){
-        String artist = track.getArtists()[0].getName();
-        String trackID = track.getId();
-        File file = new File(LIBRARY_FOLDER+"//"+artist+"//"+trackID);
-        if (!file.exists()) return 0;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))){
-            // skip header
-            br.readLine();
-
-            // read first line
-            String line = br.readLine();
-            return Integer.parseInt(line.split("--")[1]);
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e){
-            System.err.println(file.getPath() + ": invalid format");
-        }
-
-        return 0;
-    }
-
-    private static void getSongScore(File file, float[] scores){
-        try (BufferedReader br = new BufferedReader(new FileReader(file))){
-            // skip header
-            br.readLine();
-
-            // read info
-            String line;
-            while ((line = br.readLine()) != null){
-                String[] params = line.split("--");
-                int rank = Integer.parseInt(params[0]);
-                int popularity = Integer.parseInt(params[1]);
-                scores[(rank-1) / 10] += popularity / 100f;
-            }
-        } catch (FileNotFoundException e) {
-            System.err.println(file.getPath() + " doesn't exist!");
-        } catch (NumberFormatException e) {
-            System.err.println("Columns aren't numbers!");
-        } catch (ArrayIndexOutOfBoundsException e){
-            System.err.println("Rows in " + file.getPath() + " don't have enough params");
-        } catch (Exception e){
-            Maintenance.writeErrorFile(e, true);
-        }
+        SongFile songFile = Library.getInstance(null).findById(track.getId());
+        if (songFile == null) return 0;
+        return songFile.getPopularity(0);
     }
 
     // --------------------------------- RANDOM ----------------------------------
 
     public static Song pickRandomSongFromLibrary(){
-        File[] artistFolders = new File(LIBRARY_FOLDER+"//").listFiles();
-        if (artistFolders == null) return null;
-
-        Random random = new Random();
-        File pickedArtist = artistFolders[random.nextInt(artistFolders.length)];
-        File[] songFiles = pickedArtist.listFiles();
-        if (songFiles == null) return null;
+        SongFile pickedSong = Library.getInstance(null).getRandomSongFile();
+        if (pickedSong == null) return null;
 
-        File pickedSong = songFiles[random.nextInt(songFiles.length)];
         Song song = new Song();
-        song.setId(pickedSong.getName());
-        song.setArtists(pickedArtist.getName());
-
-        try (BufferedReader br = new BufferedReader(new FileReader(pickedSong))){
-            song.setName(br.readLine());
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, false);
-        }
-
+        song.setId(pickedSong.getTrackId());
+        song.setArtists(pickedSong.getArtistName());
+        song.setName(pickedSong.getTrackName());
         return song;
     }
 
@@ -462,38 +235,4 @@ public class IOUtils {
             return null;
         }
     }
-
-    // ----------------------------------------- BLACKLIST -----------------
-
-    public static Set<BlockedItem> loadBlackList(){
-        Set<BlockedItem> result = new HashSet<>();
-
-        try {
-            File file = new File(BLACKLIST_FILE);
-            if (!file.exists()) return result;
-            BufferedReader br = new BufferedReader(new FileReader(file));
-            String line;
-
-            while ((line = br.readLine()) != null){
-                String[] params = line.split("--");
-                BlockedItem bi = new BlockedItem(params[1]);
-                bi.setTimesUntilUnlock(Integer.parseInt(params[0]));
-            }
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, true);
-        }
-
-        return result;
-    }
-
-    public static void saveBlacklist(Set<BlockedItem> blockedItems){
-        try {
-            File file = new File(BLACKLIST_FILE);
-            FileWriter fw = new FileWriter(file, false);
-            for (BlockedItem bi : blockedItems) fw.write(bi.toString());
-            fw.close();
-        } catch (IOException e){
-            Maintenance.writeErrorFile(e, true);
-        }
-    }
 }
@@ -0,0 +1,149 @@
+package cs10.apps.web.statsforspotify.utils;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes the log entries of {@link Maintenance} from a background thread.
+ * Callers put the entry in a bounded ring buffer without locks, and they
+ * never wait for the disk: when the buffer is full the entry is dropped and
+ * counted. The writer drains the buffer in batches, with one flush per batch,
+ * and rotates the file when it gets too big (counting the encoded bytes).
+ * A shutdown hook writes what's left, because the app ends with System.exit
+ * in many places.
+ */
+class LogWriter implements Runnable {
+    private static final int CAPACITY = 1024;
+    private static final long MAX_FILE_SIZE = 1 << 20;
+    private static final long IDLE_NANOS = 50_000_000;
+
+    private final File file, rotatedFile;
+    private final AtomicReferenceArray<String> slots = new AtomicReferenceArray<>(CAPACITY);
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile long head;
+    private volatile boolean running = true;
+    private final Thread thread;
+    private final Charset charset = Charset.defaultCharset();
+    private OutputStream output;
+    private long fileSize;
+
+    LogWriter(String filename){
+        this.file = new File(filename);
+        this.rotatedFile = new File(filename.replace(".txt", ".1.txt"));
+        this.thread = new Thread(this, "Log Writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "Log Writer Shutdown"));
+    }
+
+    /**
+     * @return false if the buffer was full and the entry was dropped
+     */
+    boolean offer(String entry){
+        long t;
+
+        do {
+            t = tail.get();
+            if (t - head >= CAPACITY){
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+
+        slots.set((int) (t % CAPACITY), entry);
+
+        // wake up the writer before the buffer gets full
+        if (t - head == CAPACITY / 2) LockSupport.unpark(thread);
+        return true;
+    }
+
+    @Override
+    public void run() {
+        while (running){
+            if (head == tail.get()) LockSupport.parkNanos(IDLE_NANOS);
+            else drain();
+        }
+    }
+
+    /**
+     * Writes every entry in the buffer and flushes once
+     */
+    synchronized void drain(){
+        try {
+            if (output == null) open();
+            long dropCount = dropped.getAndSet(0);
+            if (dropCount > 0) write(dropCount + " log entries dropped\n");
+
+            while (head < tail.get()){
+                int index = (int) (head % CAPACITY);
+                String entry = slots.get(index);
+
+                // claimed, but the entry isn't there yet
+                if (entry == null) break;
+
+                slots.set(index, null);
+                head++;
+                write(entry);
+            }
+
+            output.flush();
+        } catch (IOException e){
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes what's left and deletes the file
+     */
+    synchronized void clear(){
+        drain();
+
+        try {
+            if (output != null) output.close();
+        } catch (IOException e){
+            e.printStackTrace();
+        }
+
+        output = null;
+        if (file.exists() && file.delete()){
+            System.out.println("Previous Report cleared");
+        }
+    }
+
+    synchronized void close(){
+        running = false;
+        drain();
+
+        try {
+            if (output != null) output.close();
+        } catch (IOException e){
+            e.printStackTrace();
+        }
+
+        output = null;
+    }
+
+    private void write(String entry) throws IOException {
+        byte[] bytes = entry.getBytes(charset);
+        if (fileSize + bytes.length > MAX_FILE_SIZE) rotate();
+        output.write(bytes);
+        fileSize += bytes.length;
+    }
+
+    private void open() throws IOException {
+        output = new BufferedOutputStream(new FileOutputStream(file, true));
+        fileSize = file.length();
+    }
+
+    private void rotate() throws IOException {
+        output.close();
+        Files.move(file.toPath(), rotatedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Set;
 
 public class Maintenance {
     private static final String LOGS_FILE = "logs.txt";
+    private static final LogWriter LOG_WRITER = new LogWriter(LOGS_FILE);
 
     /**
      * @param apiUtils an authorized instance of spotify api utils
@@ -70,80 +71,24 @@ public class Maintenance {
         else if (file.delete()) System.out.println(file + " deleted successfully");
     }
 
-    public static void fixSongFiles(int sinceRankingCode){
-        File[] folders = new File("library").listFiles();
-        if (folders != null) for (File artistFolder : folders){
-            File[] files = artistFolder.listFiles();
-            if (files != null) for (File songFile : files){
-                fixSongFile(songFile, sinceRankingCode);
-            }
-        }
-    }
-
-    private static void fixSongFile(File file, int sinceRankingCode){
-        boolean fixed = false;
-        StringBuilder sb = new StringBuilder();
-
-        // READ
-        try (BufferedReader br = new BufferedReader(new FileReader(file))){
-            String line;
-
-            // Skip header
-            sb.append(br.readLine()).append('\n');
-
-            while ((line = br.readLine()) != null){
-                int codeRead = Integer.parseInt(line.split("--")[2]);
-                if (codeRead != sinceRankingCode){
-                    sb.append(line).append('\n');
-                } else {
-                    fixed = true;
-                    break;
-                }
-            }
-
-        } catch (IOException e){
-            OptionPanes.showError("IOUtils - Fix Song File (Read)", e);
-        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e){
-            System.err.println(file.getAbsolutePath() + ": invalid format");
-        }
-
-        // WRITE
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))){
-            bw.write(sb.toString());
-        } catch (IOException e){
-            OptionPanes.showError("IOUtils - Fix Song File (Write)", e);
-        }
-
-        if (fixed) System.out.println(file.getPath() + " has been fixed");
-    }
-
     public static void writeErrorFile(Exception e, boolean detailed){
-        try (FileWriter fw = new FileWriter(LOGS_FILE, true)){
-            fw.write(new Date(System.currentTimeMillis()).toString());
-            fw.write('\n');
-            if (detailed) e.printStackTrace(new PrintWriter(fw));
-            else if (e.getMessage() != null) fw.write(e.getMessage());
-            fw.write("\n\n");
-            System.err.println("Error " + e.getMessage() + " written in " + LOGS_FILE);
-        } catch (IOException ioe){
-            ioe.printStackTrace();
-        }
+        StringWriter sw = new StringWriter();
+        sw.write(new Date(System.currentTimeMillis()).toString());
+        sw.write('\n');
+        if (detailed) e.printStackTrace(new PrintWriter(sw));
+        else if (e.getMessage() != null) sw.write(e.getMessage());
+        sw.write("\n\n");
+
+        LOG_WRITER.offer(sw.toString());
+        System.err.println("Error " + e.getMessage() + " written in " + LOGS_FILE);
     }
 
     public static void log(String str){
-        try (FileWriter fw = new FileWriter(LOGS_FILE, true)){
-            fw.write(str);
-            fw.write('\n');
-            System.out.println("Log: " + str);
-        } catch (IOException ioe){
-            ioe.printStackTrace();
-        }
+        LOG_WRITER.offer(str + '\n');
+        System.out.println("Log: " + str);
     }
 
     public static void clearPreviousReport(){
-        File file = new File(LOGS_FILE);
-        if (file.exists() && file.delete()){
-            System.out.println("Previous Report cleared");
-        }
+        LOG_WRITER.clear();
     }
 }
@@ -4,11 +4,10 @@ import com.wrapper.spotify.model_objects.specification.Track;
 import cs10.apps.web.statsforspotify.app.AppOptions;
 import cs10.apps.web.statsforspotify.app.DevelopException;
 import cs10.apps.web.statsforspotify.io.ArtistDirectory;
+import cs10.apps.web.statsforspotify.io.BlacklistStore;
 import cs10.apps.web.statsforspotify.io.Library;
 import cs10.apps.web.statsforspotify.io.SongFile;
-import cs10.apps.web.statsforspotify.model.BlockedItem;
 import cs10.apps.web.statsforspotify.model.Collab;
-import cs10.apps.web.statsforspotify.utils.IOUtils;
 import cs10.apps.web.statsforspotify.view.label.*;
 
 import javax.swing.*;
@@ -16,7 +15,6 @@ import javax.swing.border.EmptyBorder;
 import javax.swing.plaf.basic.BasicProgressBarUI;
 import java.awt.*;
 import java.text.DecimalFormat;
-import java.util.Set;
 
 public class CustomPlayer extends JPanel {
     private final DecimalFormat decimalFormat = new DecimalFormat("#00");
@@ -29,7 +27,7 @@ public class CustomPlayer extends JPanel {
     private String currentSongId;
     private Library library;
     private JLabel sessionLabel;
-    private Set<BlockedItem> blacklist;
+    private BlacklistStore blacklist;
     private int average, sessionScore, pendingScore, timeCount;
 
     public CustomPlayer(int thumbSize, AppOptions appOptions) {
@@ -84,6 +82,7 @@ public class CustomPlayer extends JPanel {
         this.scoreLabel.setValue(0);
         this.popularityLabel.setValue(0);
         this.peakLabel.setValue(0);
+        this.peakLabel.setLifecycle(null);
         this.thumbnail.setUnknown();
     }
 
@@ -132,7 +131,7 @@ public class CustomPlayer extends JPanel {
         this.peakLabel.setValue(-1);
 
         if (songFile != null){
-            previousPop = songFile.getMediumAppearance().getPopularity();
+            previousPop = songFile.getPopularity(songFile.getMediumIndex());
             System.out.println(track.getName() + " normal popularity is " + previousPop);
             pendingScore = (track.getPopularity() - previousPop + 1);
             peakLabel.changeToPeak();
@@ -146,9 +145,11 @@ public class CustomPlayer extends JPanel {
             //else if (Math.abs(code - lastRankingCode) < 64) peakLabel.setOriginalValue(peak);
             //else peakLabel.setOriginalValue(comp);
             peakLabel.setValue(peak);
+            peakLabel.setLifecycle(songFile.getLifecycle());
             peakLabel.repaint();
         } else {
             peakLabel.setValue(0);
+            peakLabel.setLifecycle(null);
             peakLabel.setReplaceable(true);
             pendingScore = (track.getPopularity() / 16);
         }
@@ -190,11 +191,8 @@ public class CustomPlayer extends JPanel {
 
     private void checkScore(){
         if (pendingScore < 0 && sessionScore < 0 && sessionScore % 8 == 0) {
-            BlockedItem bi = new BlockedItem(currentSongId);
-            bi.setTimesUntilUnlock(4);
             sessionScore = 0;
-            blacklist.add(bi);
-            IOUtils.saveBlacklist(blacklist);
+            blacklist.block(currentSongId, 4);
         }
     }
 
@@ -230,7 +228,7 @@ public class CustomPlayer extends JPanel {
         return sessionScore;
     }
 
-    public void setBlacklist(Set<BlockedItem> blacklist) {
+    public void setBlacklist(BlacklistStore blacklist) {
         this.blacklist = blacklist;
     }
 }
@@ -4,6 +4,8 @@ import cs10.apps.web.statsforspotify.app.AppOptions;
 import cs10.apps.web.statsforspotify.app.PersonalChartApp;
 
 import javax.swing.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 
 public class OptionPanes {
 
@@ -91,4 +93,22 @@ public class OptionPanes {
 
         return false;
     }
+
+    /**
+     * @return the date entered (yyyy-MM-dd), or null if it was cancelled
+     * or isn't a date
+     */
+    public static String inputDate(String msg){
+        String input = JOptionPane.showInputDialog(null, msg + " (yyyy-MM-dd)",
+                PersonalChartApp.APP_NAME, JOptionPane.QUESTION_MESSAGE);
+
+        if (input == null || input.trim().isEmpty()) return null;
+
+        try {
+            return LocalDate.parse(input.trim()).toString();
+        } catch (DateTimeParseException e){
+            message(input + " isn't a valid date");
+            return null;
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package cs10.apps.web.statsforspotify.view.chart;
+
+import cs10.apps.web.statsforspotify.app.AppFrame;
+import cs10.apps.web.statsforspotify.io.ArtistDirectory;
+import cs10.apps.web.statsforspotify.io.Library;
+import cs10.apps.web.statsforspotify.io.RankingCatalog;
+import cs10.apps.web.statsforspotify.io.ScoreTrajectories;
+import cs10.apps.web.statsforspotify.view.OptionPanes;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+import java.util.List;
+
+/**
+ * Score of the current top artists as of every saved ranking
+ */
+public class ArtistScoreTrajectoryView extends AppFrame {
+    private final List<ArtistDirectory> artists;
+    private final ScoreTrajectories trajectories;
+
+    public ArtistScoreTrajectoryView(Library library, int size){
+        artists = library.getTop(size);
+        trajectories = library.getScoreTrajectories();
+    }
+
+    public boolean init(){
+        int columns = trajectories.getColumnCount();
+        if (columns < 2 || artists.isEmpty()) {
+            OptionPanes.message("Not enough rankings yet");
+            return false;
+        }
+
+        setResizable(false);
+        setTitle("Top " + artists.size() + " Artists");
+
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        for (ArtistDirectory a : artists){
+            XYSeries series = new XYSeries(a.getArtistName());
+            float[] scores = trajectories.getSeries(a.getHandle(), 0, columns);
+            for (int i=0; i<scores.length; i++) series.add(i+1, scores[i]);
+            dataset.addSeries(series);
+        }
+
+        JFreeChart chart = ChartFactory.createXYLineChart(
+                "Artist Scores",
+                "Rankings since " + RankingCatalog.getInstance().getBySequence(0).getDate(),
+                "Score", dataset, PlotOrientation.VERTICAL,
+                true,true,false
+        );
+
+        chart.getXYPlot().getDomainAxis().setRange(1, columns);
+        setContentPane(new ChartPanel(chart));
+        return true;
+    }
+}
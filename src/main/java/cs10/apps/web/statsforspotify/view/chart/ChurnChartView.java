@@ -0,0 +1,58 @@
+package cs10.apps.web.statsforspotify.view.chart;
+
+import cs10.apps.web.statsforspotify.app.AppFrame;
+import cs10.apps.web.statsforspotify.io.RankingCatalog;
+import cs10.apps.web.statsforspotify.model.ranking.RankingSummary;
+import cs10.apps.web.statsforspotify.model.ranking.SimpleRanking;
+import cs10.apps.web.statsforspotify.view.OptionPanes;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+/**
+ * Share of every saved ranking that wasn't in the previous one, read from
+ * the summaries of the catalog
+ */
+public class ChurnChartView extends AppFrame {
+    private final SimpleRanking[] rankings;
+
+    public ChurnChartView(){
+        rankings = RankingCatalog.getInstance().getAll();
+    }
+
+    public boolean init(){
+        if (rankings.length < 3) {
+            OptionPanes.message("Not enough rankings yet");
+            return false;
+        }
+
+        setResizable(false);
+        setTitle("Churn since " + rankings[0].getDate());
+
+        XYSeries churn = new XYSeries("Churn");
+        XYSeries exits = new XYSeries("Exits");
+
+        // the first ranking has nothing to compare with
+        for (int i=1; i<rankings.length; i++){
+            RankingSummary s = rankings[i].getSummary();
+            if (s == null) continue;
+            churn.add(i+1, s.getChurnRate() * 100);
+            exits.add(i+1, s.getPreviousSize() == 0 ? 0 : s.getExits() * 100f / s.getPreviousSize());
+        }
+
+        XYSeriesCollection dataset = new XYSeriesCollection(churn);
+        dataset.addSeries(exits);
+        JFreeChart chart = ChartFactory.createXYLineChart(
+                "Ranking Churn", "Rankings", "% of the ranking", dataset,
+                PlotOrientation.VERTICAL, true, true, false
+        );
+
+        chart.getXYPlot().getDomainAxis().setRange(2, rankings.length);
+        chart.getXYPlot().getRangeAxis().setRange(0, 100);
+        setContentPane(new ChartPanel(chart));
+        return true;
+    }
+}
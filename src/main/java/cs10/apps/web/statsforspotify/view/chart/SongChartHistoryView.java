@@ -2,10 +2,10 @@ package cs10.apps.web.statsforspotify.view.chart;
 
 import cs10.apps.web.statsforspotify.app.AppFrame;
 import cs10.apps.web.statsforspotify.io.Library;
-import cs10.apps.web.statsforspotify.io.SongAppearance;
+import cs10.apps.web.statsforspotify.io.PositionMatrix;
+import cs10.apps.web.statsforspotify.io.RankingCatalog;
 import cs10.apps.web.statsforspotify.io.SongFile;
 import cs10.apps.web.statsforspotify.io.SongPeak;
-import cs10.apps.web.statsforspotify.utils.IOUtils;
 import cs10.apps.web.statsforspotify.view.OptionPanes;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
@@ -17,12 +17,22 @@ import org.jfree.data.xy.XYSeries;
 import org.jfree.data.xy.XYSeriesCollection;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
+/**
+ * Rank of a song in every ranking since its first appearance, next to the
+ * other songs of the artist that were in the most of those rankings
+ */
 public class SongChartHistoryView extends AppFrame {
+    private static final int OTHER_SONGS = 3;
     private final SongFile songFile;
+    private final PositionMatrix positions;
 
     public SongChartHistoryView(Library library, String artist, String songId){
         songFile = library.getArtistByName(artist).getSongById(songId);
+        positions = library.getPositionMatrix();
     }
 
     public boolean init(){
@@ -34,28 +44,38 @@ public class SongChartHistoryView extends AppFrame {
         SongPeak peak = songFile.getPeak();
         setResizable(false);
         setTitle("Peak #" + peak.getChartPosition() + " on " +
-                IOUtils.getRankingDate(peak.getRankingCode()));
+                RankingCatalog.getInstance().getDate(peak.getRankingCode()));
 
-        XYSeries series = new XYSeries("Rank");
+        int from = positions.getFirstColumn(songFile.getHandle());
+        int to = positions.getLastColumn(songFile.getHandle()) + 1;
+        if (from < 0){
+            OptionPanes.message("The rankings of this song weren't found");
+            return false;
+        }
+
+        XYSeriesCollection dataset = new XYSeriesCollection();
+        addSeries(dataset, songFile, from, to);
 
-        int count = 1;
-        for (SongAppearance a : songFile.getAppearances()){
-            series.add(count++, a.getChartPosition());
+        List<SongFile> others = new ArrayList<>(songFile.getArtistReference().getSongFiles());
+        others.remove(songFile);
+        others.sort(Comparator.comparingInt((SongFile sf) -> positions.getCount(sf.getHandle(), from, to)).reversed());
+
+        for (int i=0; i<Math.min(OTHER_SONGS, others.size()); i++){
+            if (positions.getCount(others.get(i).getHandle(), from, to) > 0)
+                addSeries(dataset, others.get(i), from, to);
         }
 
-        int firstCode = songFile.getAppearances().get(0).getRankingCode();
-        XYSeriesCollection dataset = new XYSeriesCollection(series);
         JFreeChart chart = ChartFactory.createXYLineChart(
                 songFile.getTrackName() + " by " + songFile.getArtistName(),
-                "Appearances since " + IOUtils.getRankingDate(firstCode),
+                "Rankings since " + RankingCatalog.getInstance().getDate(positions.getCode(from)),
                 "Rank", dataset, PlotOrientation.VERTICAL,
                 true,true,false
         );
 
         XYPlot xyPlot = chart.getXYPlot();
-        render(xyPlot, dataset);
+        render(xyPlot);
 
-        xyPlot.getDomainAxis().setRange(1,songFile.getAppearancesCount());
+        xyPlot.getDomainAxis().setRange(from + 1, Math.max(to, from + 2));
         xyPlot.getRangeAxis().setRange(0,100);
         xyPlot.getRangeAxis().setInverted(true);
         ChartPanel chartPanel = new ChartPanel(chart);
@@ -63,26 +83,25 @@ public class SongChartHistoryView extends AppFrame {
         return true;
     }
 
-    private void render(XYPlot plot, XYSeriesCollection dataset){
-        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer(){
-            final Stroke solid = new BasicStroke(2.0f);
-            final Stroke dashed =  new BasicStroke(1.0f,
-                    BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER,
-                    10.0f, new float[] {10.0f}, 0.0f);
-
-            @Override
-            public Stroke getItemStroke(int row, int column) {
-                if (row == 2){
-                    double x = dataset.getXValue(row, column);
-                    if ( x > 4){
-                        return dashed;
-                    } else {
-                        return solid;
-                    }
-                } else
-                    return super.getItemStroke(row, column);
-            }
-        };
+    /**
+     * The rankings without the song are left as gaps in its line
+     */
+    private void addSeries(XYSeriesCollection dataset, SongFile sf, int from, int to){
+        String key = sf.getTrackName();
+        if (dataset.getSeriesIndex(key) >= 0) key += " (" + sf.getTrackId() + ")";
+
+        XYSeries series = new XYSeries(key);
+        short[] row = positions.getRow(sf.getHandle(), from, to);
+
+        for (int i=0; i<row.length; i++){
+            series.add(from + i + 1, row[i] == 0 ? null : (Number) row[i]);
+        }
+
+        dataset.addSeries(series);
+    }
+
+    private void render(XYPlot plot){
+        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
 
         renderer.setDefaultShapesVisible(true);
         renderer.setDefaultShapesFilled(true);
@@ -1,5 +1,7 @@
 package cs10.apps.web.statsforspotify.view.label;
 
+import cs10.apps.web.statsforspotify.io.SongLifecycle;
+
 public class PeakLabel extends CircleLabel {
     private float originalMinutes;
 
@@ -14,8 +16,20 @@ public class PeakLabel extends CircleLabel {
         setInverted(true);
     }
 
+    /**
+     * Shows the debut, the streak and the re-entries of the song when the
+     * mouse is over the label (nothing if it's null)
+     */
+    public void setLifecycle(SongLifecycle lifecycle){
+        if (lifecycle == null || lifecycle.getRankings() == 0) setToolTipText(null);
+        else setToolTipText("Debut: " + lifecycle.getDebutDate() +
+                " | Streak: " + lifecycle.getCurrentStreak() +
+                " | Re-entries: " + lifecycle.getReEntries());
+    }
+
     public void changeToLastFM(float minutes, int playCount, int average){
         setOriginalValue(0);
+        setLifecycle(null);
         setMinutes(true);
         originalMinutes = minutes;
         //setValue(0);
@@ -3,8 +3,9 @@ package cs10.apps.web.statsforspotify.view.table;
 import cs10.apps.desktop.statsforspotify.view.CustomTableModel;
 import cs10.apps.web.statsforspotify.app.AppFrame;
 import cs10.apps.web.statsforspotify.io.ArtistDirectory;
+import cs10.apps.web.statsforspotify.io.RankingCatalog;
 import cs10.apps.web.statsforspotify.io.SongFile;
-import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.io.SongLifecycle;
 import cs10.apps.web.statsforspotify.view.CustomTableCellRenderer;
 
 import javax.swing.*;
@@ -23,8 +24,9 @@ public class ArtistPeaksFrame extends AppFrame {
 
     public void init(){
         setTitle(data.getArtistName());
-        setSize(800, 400);
-        String[] columnsNames = new String[]{"Rank", "Song Name", "Peak", "Date", "Popularity"};
+        setSize(1100, 400);
+        String[] columnsNames = new String[]{"Rank", "Song Name", "Peak", "Date", "Popularity",
+                "Debut", "Rankings", "Longest Streak"};
         CustomTableModel model = new CustomTableModel(columnsNames, 0);
 
         JTable table = new JTable(model) {
@@ -51,6 +53,9 @@ public class ArtistPeaksFrame extends AppFrame {
                         break;
                     case 3:
                     case 4:
+                    case 5:
+                    case 6:
+                    case 7:
                         getColumnModel().getColumn(column).setPreferredWidth(100);
                         break;
                 }
@@ -86,7 +91,9 @@ public class ArtistPeaksFrame extends AppFrame {
     }
 
     private Object[] toRow(SongFile s, int index){
+        SongLifecycle lifecycle = s.getLifecycle();
         return new Object[]{"#"+index, s.getTrackName(), s.getPeak().toString(),
-                IOUtils.getRankingDate(s.getPeak().getRankingCode()), s.getLastAppearance().getPopularity()};
+                RankingCatalog.getInstance().getDate(s.getPeak().getRankingCode()), s.getPopularity(s.getLastIndex()),
+                lifecycle.getDebutDate(), lifecycle.getRankings(), lifecycle.getLongestStreak()};
     }
 }
@@ -5,20 +5,19 @@ import cs10.apps.desktop.statsforspotify.model.Status;
 import cs10.apps.desktop.statsforspotify.utils.OldIOUtils;
 import cs10.apps.desktop.statsforspotify.view.CustomTableModel;
 import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
-import cs10.apps.web.statsforspotify.utils.IOUtils;
+import cs10.apps.web.statsforspotify.io.Library;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 
 public class RankingFrame extends JFrame {
-    private final BigRanking bigRanking, actualRanking;
+    private final BigRanking bigRanking;
     private CustomTableModel model;
     private JTable table;
 
     public RankingFrame(String rankingCode, BigRanking actualRanking) throws HeadlessException {
-        this.bigRanking = IOUtils.getRanking(rankingCode, true);
-        this.actualRanking = actualRanking;
+        this.bigRanking = Library.getInstance(null).getRanking(Long.parseLong(rankingCode), actualRanking);
     }
 
     public void init() {
@@ -38,7 +37,6 @@ public class RankingFrame extends JFrame {
         table.setAutoCreateRowSorter(true);
         customizeTexts();
 
-        bigRanking.retrieveAllStatus(actualRanking);
         getContentPane().add(BorderLayout.CENTER, new JScrollPane(table));
 
         setResizable(false);
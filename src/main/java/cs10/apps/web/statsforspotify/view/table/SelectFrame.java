@@ -2,7 +2,9 @@ package cs10.apps.web.statsforspotify.view.table;
 
 import cs10.apps.desktop.statsforspotify.view.CustomTableModel;
 import cs10.apps.web.statsforspotify.app.AppFrame;
+import cs10.apps.web.statsforspotify.io.TrackTable;
 import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import cs10.apps.web.statsforspotify.model.ranking.RankingSummary;
 import cs10.apps.web.statsforspotify.model.ranking.SimpleRanking;
 
 import javax.swing.*;
@@ -26,10 +28,11 @@ public class SelectFrame extends AppFrame {
 
     public void init(){
         setTitle("Please, select one of these");
-        setSize(400, 600);
+        setSize(1300, 600);
 
         System.out.println("Preparing table...");
-        String[] columnsNames = new String[]{"Rank Code", "Date"};
+        String[] columnsNames = new String[]{"Rank Code", "Date", "Avg Popularity", "Entries",
+                "Re-entries", "Exits", "Gains", "Losses", "Churn", "Biggest Gain", "Biggest Loss"};
         CustomTableModel model = new CustomTableModel(columnsNames, 0);
         JTable table = new JTable(model);
         table.setRowHeight(50);
@@ -62,7 +65,22 @@ public class SelectFrame extends AppFrame {
     }
 
     private Object[] toRow(SimpleRanking ranking){
-        return new Object[]{"#"+ranking.getCode(), formatCustomDate(ranking.getDate())};
+        RankingSummary s = ranking.getSummary();
+        String average = String.format("%.1f", ranking.getAveragePopularity());
+        if (s == null) return new Object[]{"#"+ranking.getCode(), formatCustomDate(ranking.getDate()), average};
+
+        return new Object[]{"#"+ranking.getCode(), formatCustomDate(ranking.getDate()), average,
+                s.getEntries(), s.getReEntries(), s.getExits(), s.getGains(), s.getLosses(),
+                Math.round(s.getChurnRate() * 100) + "%",
+                toString(s.getBiggestGain(), "+" + s.getBiggestGainChange()),
+                toString(s.getBiggestLoss(), String.valueOf(s.getBiggestLossChange()))};
+    }
+
+    private String toString(int trackHandle, String change){
+        if (trackHandle < 0) return "-";
+        TrackTable trackTable = TrackTable.getInstance();
+        String name = trackTable.isPlaceholder(trackHandle) ? trackTable.getTrackId(trackHandle) : trackTable.getTrackName(trackHandle);
+        return name + " (" + change + ")";
     }
 
     private String formatCustomDate(String date){
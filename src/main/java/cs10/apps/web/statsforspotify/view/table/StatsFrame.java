@@ -11,6 +11,7 @@ import cs10.apps.web.statsforspotify.core.Init;
 import cs10.apps.web.statsforspotify.io.ArtistDirectory;
 import cs10.apps.web.statsforspotify.io.Library;
 import cs10.apps.web.statsforspotify.io.SongFile;
+import cs10.apps.web.statsforspotify.io.TrackTable;
 import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
 import cs10.apps.web.statsforspotify.model.ranking.SimpleRanking;
 import cs10.apps.web.statsforspotify.service.AutoPlayService;
@@ -22,6 +23,8 @@ import cs10.apps.web.statsforspotify.utils.Maintenance;
 import cs10.apps.web.statsforspotify.view.CustomPlayer;
 import cs10.apps.web.statsforspotify.view.CustomTableCellRenderer;
 import cs10.apps.web.statsforspotify.view.OptionPanes;
+import cs10.apps.web.statsforspotify.view.chart.ArtistScoreTrajectoryView;
+import cs10.apps.web.statsforspotify.view.chart.ChurnChartView;
 import cs10.apps.web.statsforspotify.view.chart.SongChartHistoryView;
 import cs10.apps.web.statsforspotify.view.histogram.ArtistFrame;
 import cs10.apps.web.statsforspotify.view.histogram.GenreFrame;
@@ -141,16 +144,13 @@ public class StatsFrame extends AppFrame {
             new Thread(this::addAlbumCoversColumn, "Load Album Covers").start();
         startPlayback();
 
-        // Important for maintain order
-        library.sort();
-
         // Set Listeners
         if (bigRanking.getRepeatedQuantity() < 5)
             autoPlayButton.setEnabled(false);
         else {
             AutoPlayService autoPlayService = new AutoPlayService(bigRanking, apiUtils, autoPlayButton);
             autoPlayButton.addActionListener(e -> {
-                SongFile sf = library.getRandomSong();
+                SongFile sf = library.getRandomSongFile();
                 if (apiUtils.playThis(sf.getTrackId(), true)){
                     autoPlayService.setModifyPlayback(true);
                     autoPlayService.execute();
@@ -203,6 +203,9 @@ public class StatsFrame extends AppFrame {
         JMenu viewMenu = new JMenu("More Stats");
         JMenuItem jmiLocalTop10 = new JMenuItem("Local Top 10 Artists");
         JMenuItem jmiLocalTop100 = new JMenuItem("Local Top 100 Artists");
+        JMenuItem jmiScoresHistory = new JMenuItem("Top 10 Artists Scores History");
+        JMenuItem jmiChurnHistory = new JMenuItem("Ranking Churn History");
+        JMenuItem jmiNumberOne = new JMenuItem("Number One on a Date");
         JMenuItem jmiCurrentCollab = new JMenuItem("Current Collab Scores");
         JMenuItem jmiTopGenres = new JMenuItem("Current Top Genres");
         JMenuItem jmiDailyMixes = new JMenuItem("Current Daily Mixes Stats");
@@ -215,6 +218,9 @@ public class StatsFrame extends AppFrame {
         jmiAlbumCovers.addActionListener(e -> changeAlbumCoversOption());
         jmiLocalTop10.addActionListener(e -> openLocalTop10());
         jmiLocalTop100.addActionListener(e -> openLocalTop100());
+        jmiScoresHistory.addActionListener(e -> openScoresHistory());
+        jmiChurnHistory.addActionListener(e -> openChurnHistory());
+        jmiNumberOne.addActionListener(e -> showNumberOne());
         jmiTopGenres.addActionListener(e -> openCurrentTopGenres());
         jmiCurrentCollab.addActionListener(e -> openCurrentCollabScores());
         jmiDailyMixes.addActionListener(e -> openCurrentDailyMixesStats());
@@ -232,6 +238,9 @@ public class StatsFrame extends AppFrame {
 
         viewMenu.add(jmiLocalTop10);
         viewMenu.add(jmiLocalTop100);
+        viewMenu.add(jmiScoresHistory);
+        viewMenu.add(jmiChurnHistory);
+        viewMenu.add(jmiNumberOne);
         viewMenu.add(jmiTopGenres);
         viewMenu.add(jmiCurrentCollab);
         viewMenu.add(jmiDailyMixes);
@@ -261,8 +270,8 @@ public class StatsFrame extends AppFrame {
 
         for (Song s : bigRanking){
             if (s.getStatus() == Status.NEW){
-                int times = IOUtils.getTimesOnRanking(s.getArtists(), s.getId());
-                if (times <= 1) s.setInfoStatus("NEW");
+                SongFile sf = s.getSongFile();
+                if (sf == null || sf.getLifecycle().getRankings() <= 1) s.setInfoStatus("NEW");
                 else s.setInfoStatus("RE-ENTRY");
             } else {
                 if (s.getChange() == 0) s.setInfoStatus("");
@@ -292,7 +301,7 @@ public class StatsFrame extends AppFrame {
     }
 
     private Object[] toRow(Song song){
-        int comp = song.getSongFile().getPreviousAppearance().getPopularity();
+        int comp = song.getSongFile().getPopularity(song.getSongFile().getPreviousIndex());
         int diff = song.getPopularity() - comp;
         String popStr;
 
@@ -382,6 +391,46 @@ public class StatsFrame extends AppFrame {
         new LocalTop100Frame(artists).init();
     }
 
+    private void openScoresHistory(){
+        new Thread(() -> {
+            ArtistScoreTrajectoryView view = new ArtistScoreTrajectoryView(library, 10);
+
+            SwingUtilities.invokeLater(() -> {
+                if (view.init()){
+                    view.setSize(1000,500);
+                    view.setVisible(true);
+                }
+            });
+        }, "Open Scores History").start();
+    }
+
+    private void openChurnHistory(){
+        SwingUtilities.invokeLater(() -> {
+            ChurnChartView view = new ChurnChartView();
+
+            if (view.init()){
+                view.setSize(1000,500);
+                view.setVisible(true);
+            }
+        });
+    }
+
+    private void showNumberOne(){
+        String date = OptionPanes.inputDate("Which day?");
+        if (date == null) return;
+
+        int handle = library.getNumberOne(date);
+        if (handle < 0){
+            OptionPanes.message("There is no ranking of " + date);
+            return;
+        }
+
+        TrackTable trackTable = TrackTable.getInstance();
+        if (trackTable.isPlaceholder(handle)) OptionPanes.message("#1 on " + date + ": " + trackTable.getTrackId(handle));
+        else OptionPanes.message("#1 on " + date + ": " + trackTable.getTrackName(handle) + " by " +
+                trackTable.getArtistName(trackTable.getTrackArtist(handle)));
+    }
+
     private void openCurrentCollabScores(){
         new CollabScoresFrame(bigRanking).init();
     }
@@ -419,7 +468,6 @@ public class StatsFrame extends AppFrame {
             //String artistsNames = (String) model.getValueAt(table.getSelectedRow(), 3);
             String[] artists = artistsNames.split(", ");
             String mainName = artists[0];
-            //float[] scores = IOUtils.getDetailedArtistScores(mainName);
             float[] scores = library.getArtistByName(mainName).getPopularitySumByRank();
             ArtistFrame artistFrame = new ArtistFrame(mainName, scores);
             artistFrame.init();
@@ -0,0 +1,102 @@
+package cs10.apps.desktop.statsforspotify.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingTest {
+
+    private Song createSong(String id, int rank){
+        Song song = new Song();
+        song.setId(id);
+        song.setRank(rank);
+        song.setName("Song " + rank);
+        song.setArtists("Artist");
+        return song;
+    }
+
+    private Ranking createRanking(int size){
+        Ranking ranking = new Ranking();
+        for (int i=1; i<=size; i++) ranking.add(createSong("ranking-test-" + i, i));
+        return ranking;
+    }
+
+    @Test
+    void songsAreFoundAfterShuffling(){
+        Ranking ranking = createRanking(100);
+        Collections.shuffle(ranking, new Random(42));
+        ranking.sortByDefault();
+
+        for (int i=1; i<=100; i++){
+            Song song = ranking.getSong("ranking-test-" + i);
+            assertNotNull(song);
+            assertEquals(i, song.getRank());
+        }
+    }
+
+    @Test
+    void removedSongsLeaveTheIndex(){
+        Ranking ranking = createRanking(10);
+        ranking.remove(2);
+        ranking.remove(ranking.getSong("ranking-test-5"));
+        ranking.removeIf(s -> s.getRank() > 8);
+
+        assertFalse(ranking.contains("ranking-test-3"));
+        assertFalse(ranking.contains("ranking-test-5"));
+        assertFalse(ranking.contains("ranking-test-9"));
+        assertTrue(ranking.contains("ranking-test-8"));
+        assertEquals(6, ranking.size());
+    }
+
+    @Test
+    void duplicatedIdStaysWhileASongHasIt(){
+        Ranking ranking = new Ranking();
+        Song first = createSong("ranking-test-dup", 1), second = createSong("ranking-test-dup", 2);
+        ranking.add(first);
+        ranking.add(second);
+
+        ranking.remove(0);
+        assertSame(second, ranking.getSong("ranking-test-dup"));
+
+        ranking.set(0, createSong("ranking-test-other", 1));
+        assertFalse(ranking.contains("ranking-test-dup"));
+        assertTrue(ranking.contains("ranking-test-other"));
+    }
+
+    @Test
+    void songWithoutIdIsNotIndexed(){
+        Ranking ranking = createRanking(3);
+        Song song = new Song();
+        song.setName("Song without id");
+        song.setArtists("Artist");
+        ranking.add(song);
+        ranking.remove(song);
+
+        assertEquals(3, ranking.size());
+        assertTrue(ranking.contains("ranking-test-1"));
+    }
+
+    @Test
+    void addAllGoesThroughAdd(){
+        List<Song> added = new ArrayList<>();
+        Ranking ranking = new Ranking(){
+            @Override
+            public boolean add(Song song) {
+                added.add(song);
+                return super.add(song);
+            }
+        };
+
+        List<Song> songs = Arrays.asList(createSong("ranking-test-a", 1), createSong("ranking-test-b", 2));
+        assertTrue(ranking.addAll(songs));
+        assertEquals(songs, added);
+        assertTrue(ranking.contains("ranking-test-b"));
+        assertFalse(ranking.addAll(new ArrayList<>()));
+    }
+}
@@ -0,0 +1,107 @@
+package cs10.apps.web.statsforspotify.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppearanceLogTest {
+    private File directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = StoreFiles.createDirectory();
+    }
+
+    @AfterEach
+    void deleteDirectory(){
+        StoreFiles.delete(directory);
+    }
+
+    private AppearanceLog open() throws IOException {
+        AppearanceLog log = new AppearanceLog(directory);
+        log.open();
+        return log;
+    }
+
+    private void append(AppearanceLog log, int records, int rankingCode) throws IOException {
+        AppearanceLog.Batch batch = new AppearanceLog.Batch();
+        for (int i=0; i<records; i++) batch.add(i, i+1, 50 + i % 50, rankingCode);
+        log.append(batch);
+    }
+
+    private List<int[]> readAll(AppearanceLog log) throws IOException {
+        List<int[]> result = new ArrayList<>();
+        log.read(0, (trackHandle, chartPosition, popularity, rankingCode) ->
+                result.add(new int[]{trackHandle, chartPosition, popularity, rankingCode}));
+        return result;
+    }
+
+    private File getSegment(int index){
+        return new File(directory, "appearances-" + String.format("%04d", index) + ".seg");
+    }
+
+    @Test
+    void recordsAreReadBackInOrder() throws IOException {
+        AppearanceLog log = open();
+        append(log, 3, 100);
+        append(log, 2, 101);
+
+        List<int[]> records = readAll(open());
+        assertEquals(5, records.size());
+        assertArrayEquals(new int[]{2, 3, 52, 100}, records.get(2));
+        assertArrayEquals(new int[]{1, 2, 51, 101}, records.get(4));
+    }
+
+    @Test
+    void partialRecordIsCutOnOpen() throws IOException {
+        append(open(), 4, 100);
+
+        try (RandomAccessFile raf = new RandomAccessFile(getSegment(0), "rw")){
+            raf.seek(raf.length());
+            raf.write(new byte[AppearanceLog.RECORD_SIZE / 2]);
+        }
+
+        AppearanceLog log = open();
+        assertEquals(4, log.getLength());
+        assertEquals(4L * AppearanceLog.RECORD_SIZE, getSegment(0).length());
+
+        // the next record starts where the last complete one ended
+        append(log, 1, 101);
+        List<int[]> records = readAll(open());
+        assertEquals(5, records.size());
+        assertArrayEquals(new int[]{0, 1, 50, 101}, records.get(4));
+    }
+
+    @Test
+    void truncateKeepsTheFirstRecords() throws IOException {
+        AppearanceLog log = open();
+        append(log, 10, 100);
+        log.truncate(6);
+
+        assertEquals(6, log.getLength());
+        assertEquals(6, readAll(open()).size());
+
+        log.truncate(0);
+        assertEquals(0, log.getLength());
+        assertFalse(getSegment(0).exists());
+    }
+
+    @Test
+    void readingStartsAtTheGivenRecord() throws IOException {
+        AppearanceLog log = open();
+        append(log, 10, 100);
+
+        List<Integer> handles = new ArrayList<>();
+        log.read(7, (trackHandle, chartPosition, popularity, rankingCode) -> handles.add(trackHandle));
+        assertEquals(Arrays.asList(7, 8, 9), handles);
+    }
+}
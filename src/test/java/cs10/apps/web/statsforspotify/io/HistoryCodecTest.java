@@ -0,0 +1,88 @@
+package cs10.apps.web.statsforspotify.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryCodecTest {
+
+    private AppearanceArray decode(AppearanceArray appearances){
+        return HistoryCodec.decode(ByteBuffer.wrap(HistoryCodec.encode(appearances)), 0);
+    }
+
+    private void assertSameAppearances(AppearanceArray expected, AppearanceArray actual){
+        assertEquals(expected.size(), actual.size());
+        for (int i=0; i<expected.size(); i++){
+            assertEquals(expected.getChartPosition(i), actual.getChartPosition(i));
+            assertEquals(expected.getPopularity(i), actual.getPopularity(i));
+            assertEquals(expected.getRankingCode(i), actual.getRankingCode(i));
+        }
+    }
+
+    @Test
+    void appearancesAreDecodedInOrder(){
+        AppearanceArray appearances = new AppearanceArray();
+        appearances.add(50, 70, 1200);
+        appearances.add(12, 75, 1201);
+        appearances.add(49, 71, 1205);
+        appearances.add(1, 100, 90000);
+        appearances.add(100, 0, 90001);
+
+        assertSameAppearances(appearances, decode(appearances));
+    }
+
+    @Test
+    void extremeValuesSurviveTheVarints(){
+        AppearanceArray appearances = new AppearanceArray();
+        appearances.add(Short.MAX_VALUE, 0, Integer.MAX_VALUE);
+        appearances.add(1, 100, 0);
+        appearances.add(Short.MAX_VALUE, 0, Integer.MAX_VALUE);
+
+        assertSameAppearances(appearances, decode(appearances));
+    }
+
+    @Test
+    void emptyHistoryIsOneByte(){
+        byte[] block = HistoryCodec.encode(new AppearanceArray());
+        assertEquals(1, block.length);
+        assertEquals(0, HistoryCodec.decode(ByteBuffer.wrap(block), 0).size());
+        assertEquals(0, HistoryCodec.decodeHeader(ByteBuffer.wrap(block)).getCount());
+    }
+
+    @Test
+    void smallDifferencesTakeOneByte(){
+        AppearanceArray appearances = new AppearanceArray();
+        for (int i=0; i<100; i++) appearances.add(10 + i % 3, 60 - i % 2, i);
+
+        // a byte for each value of the header, except the count (two)
+        assertEquals(8 + 3 * 99, HistoryCodec.encode(appearances).length);
+    }
+
+    @Test
+    void headerHasTheCountAndThePeak(){
+        AppearanceArray appearances = new AppearanceArray();
+        appearances.add(20, 70, 5);
+        appearances.add(3, 71, 6);
+        appearances.add(8, 72, 7);
+        appearances.add(3, 73, 8);
+
+        HistoryCodec.Header header = HistoryCodec.decodeHeader(ByteBuffer.wrap(HistoryCodec.encode(appearances)));
+        assertEquals(4, header.getCount());
+        assertEquals(3, header.getPeak().getChartPosition());
+        assertEquals(2, header.getPeak().getTimes());
+        assertEquals(6, header.getPeak().getRankingCode());
+    }
+
+    @Test
+    void decodingLeavesRoomForTheNextAppearances(){
+        AppearanceArray appearances = new AppearanceArray();
+        appearances.add(20, 70, 5);
+
+        AppearanceArray decoded = HistoryCodec.decode(ByteBuffer.wrap(HistoryCodec.encode(appearances)), 10);
+        for (int i=0; i<10; i++) decoded.add(i+1, 50, 6+i);
+        assertEquals(11, decoded.size());
+        assertEquals(5, decoded.getRankingCode(0));
+    }
+}
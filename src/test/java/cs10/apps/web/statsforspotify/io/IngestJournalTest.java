@@ -0,0 +1,115 @@
+package cs10.apps.web.statsforspotify.io;
+
+import cs10.apps.desktop.statsforspotify.model.Song;
+import cs10.apps.web.statsforspotify.model.ranking.BigRanking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestJournalTest {
+    private File directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = StoreFiles.createDirectory();
+    }
+
+    @AfterEach
+    void deleteDirectory(){
+        StoreFiles.delete(directory);
+    }
+
+    private BigRanking createRanking(){
+        BigRanking ranking = new BigRanking();
+        ranking.setCode(1234);
+        ranking.setDate("2026-03-01");
+
+        for (int i=1; i<=3; i++){
+            Song song = new Song();
+            song.setId("id" + i);
+            song.setName("Song " + i);
+            song.setArtists("Artist");
+            song.setRank(i);
+            song.setPopularity(90 - i);
+            ranking.add(song);
+        }
+
+        return ranking;
+    }
+
+    private File append(String filename, int bytes) throws IOException {
+        File f = new File(directory, filename);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "rw")){
+            raf.seek(raf.length());
+            raf.write(new byte[bytes]);
+        }
+
+        return f;
+    }
+
+    @Test
+    void recoveryCutsTheStoreFiles() throws IOException {
+        File tracks = append(TrackTable.FILENAME, 10);
+        File rows = append(RankingStore.ROWS_FILENAME, 20);
+        new IngestJournal(directory).begin(createRanking(), 0);
+
+        append(TrackTable.FILENAME, 7);
+        append(RankingStore.ROWS_FILENAME, 5);
+        File catalog = append(RankingCatalog.FILENAME, 30);
+
+        BigRanking recovered = new IngestJournal(directory).read();
+        assertNotNull(recovered);
+        assertEquals(1234, recovered.getCode());
+        assertEquals("2026-03-01", recovered.getDate());
+        assertEquals(3, recovered.size());
+        assertEquals("id2", recovered.get(1).getId());
+        assertEquals(2, recovered.get(1).getRank());
+
+        assertEquals(10, tracks.length());
+        assertEquals(20, rows.length());
+        assertFalse(catalog.exists());
+    }
+
+    @Test
+    void corruptedRecordIsDiscarded() throws IOException {
+        File tracks = append(TrackTable.FILENAME, 10);
+        new IngestJournal(directory).begin(createRanking(), 0);
+        append(TrackTable.FILENAME, 7);
+
+        File wal = new File(directory, "ingest.wal");
+        byte[] data = Files.readAllBytes(wal.toPath());
+        data[12] ^= 1;
+        Files.write(wal.toPath(), data);
+
+        assertNull(new IngestJournal(directory).read());
+        assertEquals(17, tracks.length());
+    }
+
+    @Test
+    void incompleteRecordIsDiscarded() throws IOException {
+        new IngestJournal(directory).begin(createRanking(), 0);
+
+        File wal = new File(directory, "ingest.wal");
+        try (RandomAccessFile raf = new RandomAccessFile(wal, "rw")){
+            raf.setLength(raf.length() - 3);
+        }
+
+        assertNull(new IngestJournal(directory).read());
+    }
+
+    @Test
+    void pendingRecordIsNotReplaced() throws IOException {
+        IngestJournal journal = new IngestJournal(directory);
+        journal.begin(createRanking(), 0);
+
+        assertThrows(IOException.class, () -> journal.begin(createRanking(), 0));
+        assertEquals(1234, journal.read().getCode());
+    }
+}
@@ -0,0 +1,21 @@
+package cs10.apps.web.statsforspotify.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Temporary store directories for the tests
+ */
+class StoreFiles {
+
+    static File createDirectory() throws IOException {
+        return Files.createTempDirectory("store").toFile();
+    }
+
+    static void delete(File directory){
+        File[] files = directory.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        directory.delete();
+    }
+}
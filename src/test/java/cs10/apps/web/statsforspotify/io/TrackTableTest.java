@@ -0,0 +1,87 @@
+package cs10.apps.web.statsforspotify.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackTableTest {
+    private File directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = StoreFiles.createDirectory();
+    }
+
+    @AfterEach
+    void deleteDirectory(){
+        StoreFiles.delete(directory);
+    }
+
+    private TrackTable open() throws IOException {
+        TrackTable table = new TrackTable(directory);
+        table.load();
+        return table;
+    }
+
+    @Test
+    void recordsAreReadBackInOrder() throws IOException {
+        TrackTable table = open();
+        int artist = table.registerArtist("Artist");
+        int track = table.registerTrack("id1", artist, "Song");
+        table.flush();
+
+        TrackTable reopened = open();
+        assertEquals(1, reopened.getArtistCount());
+        assertEquals("Artist", reopened.getArtistName(artist));
+        assertEquals(track, reopened.getTrackHandle("id1"));
+        assertEquals("Song", reopened.getTrackName(track));
+        assertEquals(artist, reopened.getTrackArtist(track));
+        assertEquals(-1, reopened.getTrackHandle("id2"));
+    }
+
+    @Test
+    void placeholderKeepsItsHandleWhenRegistered() throws IOException {
+        TrackTable table = open();
+        int placeholder = table.registerPlaceholder("id1");
+        assertTrue(table.isPlaceholder(placeholder));
+
+        int artist = table.registerArtist("Artist");
+        assertEquals(placeholder, table.registerTrack("id1", artist, "Song"));
+        assertFalse(table.isPlaceholder(placeholder));
+        assertEquals(1, table.getTrackCount());
+        table.flush();
+
+        TrackTable reopened = open();
+        assertEquals(1, reopened.getTrackCount());
+        assertEquals(placeholder, reopened.getTrackHandle("id1"));
+        assertFalse(reopened.isPlaceholder(placeholder));
+        assertEquals("Song", reopened.getTrackName(placeholder));
+        assertEquals(artist, reopened.getTrackArtist(placeholder));
+    }
+
+    @Test
+    void incompleteRecordIsCut() throws IOException {
+        TrackTable table = open();
+        table.registerArtist("Artist");
+        table.flush();
+
+        File file = new File(directory, TrackTable.FILENAME);
+        long length = file.length();
+        table.registerTrack("id1", 0, "Song");
+        table.flush();
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")){
+            raf.setLength(file.length() - 2);
+        }
+
+        TrackTable reopened = open();
+        assertEquals(0, reopened.getTrackCount());
+        assertEquals(length, file.length());
+    }
+}
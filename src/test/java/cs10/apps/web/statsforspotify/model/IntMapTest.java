@@ -0,0 +1,75 @@
+package cs10.apps.web.statsforspotify.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntMapTest {
+
+    @Test
+    void negativeKeysAreNeverThere(){
+        IntMap<String> map = new IntMap<>();
+        assertNull(map.get(-1));
+        assertFalse(map.containsKey(-1));
+        assertNull(map.remove(-1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(-1, "a"));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void limitKeysAndNullValues(){
+        IntMap<String> map = new IntMap<>();
+        map.put(0, "zero");
+        map.put(Integer.MAX_VALUE, null);
+
+        assertEquals("zero", map.get(0));
+        assertTrue(map.containsKey(Integer.MAX_VALUE));
+        assertNull(map.get(Integer.MAX_VALUE));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void putReplacesTheValue(){
+        IntMap<String> map = new IntMap<>(1);
+        assertNull(map.put(7, "a"));
+        assertEquals("a", map.put(7, "b"));
+        assertEquals("b", map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void behavesLikeAHashMap(){
+        IntMap<Integer> map = new IntMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(11);
+
+        // a small key range, so the runs collide and removals shift them back
+        for (int i=0; i<50000; i++){
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(key), map.remove(key));
+            else assertEquals(expected.put(key, i), map.put(key, i));
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key=0; key<2000; key++){
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    void clearRemovesEverything(){
+        IntMap<String> map = new IntMap<>();
+        for (int i=0; i<100; i++) map.put(i, "v" + i);
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(50));
+        map.put(50, "again");
+        assertEquals("again", map.get(50));
+    }
+}
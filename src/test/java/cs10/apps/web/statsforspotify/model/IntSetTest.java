@@ -0,0 +1,62 @@
+package cs10.apps.web.statsforspotify.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+    @Test
+    void addContainsRemove(){
+        IntSet set = new IntSet();
+        assertTrue(set.add(3));
+        assertFalse(set.add(3));
+        assertTrue(set.contains(3));
+        assertFalse(set.contains(4));
+        assertTrue(set.remove(3));
+        assertFalse(set.remove(3));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void noneIsNeverContained(){
+        IntSet set = new IntSet();
+        set.add(0);
+        assertFalse(set.contains(SymbolTable.NONE));
+        assertFalse(set.remove(SymbolTable.NONE));
+        assertThrows(IllegalArgumentException.class, () -> set.add(SymbolTable.NONE));
+    }
+
+    @Test
+    void removeAllAndAddAll(){
+        IntSet a = new IntSet(), b = new IntSet();
+        for (int i=0; i<10; i++) a.add(i);
+        for (int i=5; i<15; i++) b.add(i);
+
+        a.removeAll(b);
+        assertEquals(5, a.size());
+        a.addAll(b);
+        assertEquals(15, a.size());
+    }
+
+    @Test
+    void matchesHashSetAfterRandomChanges(){
+        Random random = new Random(7);
+        IntSet set = new IntSet();
+        Set<Integer> reference = new HashSet<>();
+
+        for (int i=0; i<20000; i++){
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) assertEquals(reference.add(key), set.add(key));
+            else assertEquals(reference.remove(key), set.remove(key));
+        }
+
+        assertEquals(reference.size(), set.size());
+        for (int key=0; key<500; key++) assertEquals(reference.contains(key), set.contains(key));
+        assertEquals(reference.size(), set.toArray().length);
+    }
+}
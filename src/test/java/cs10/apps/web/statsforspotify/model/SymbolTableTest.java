@@ -0,0 +1,66 @@
+package cs10.apps.web.statsforspotify.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+
+    @Test
+    void internGivesTheSameSymbolToTheSameString(){
+        int symbol = SymbolTable.TRACKS.intern("symbol-test-1");
+        assertEquals(symbol, SymbolTable.TRACKS.intern(new String("symbol-test-1")));
+        assertEquals(symbol, SymbolTable.TRACKS.lookup("symbol-test-1"));
+        assertEquals("symbol-test-1", SymbolTable.TRACKS.getName(symbol));
+    }
+
+    @Test
+    void lookupDoesNotIntern(){
+        int size = SymbolTable.TRACKS.size();
+        assertEquals(SymbolTable.NONE, SymbolTable.TRACKS.lookup("symbol-test-unknown"));
+        assertEquals(size, SymbolTable.TRACKS.size());
+    }
+
+    @Test
+    void nullHasNoSymbol(){
+        assertEquals(SymbolTable.NONE, SymbolTable.TRACKS.intern(null));
+        assertEquals(SymbolTable.NONE, SymbolTable.TRACKS.lookup(null));
+    }
+
+    @Test
+    void tablesAreSeparate(){
+        int track = SymbolTable.TRACKS.intern("symbol-test-2");
+        assertEquals(SymbolTable.NONE, SymbolTable.ARTISTS.lookup("symbol-test-2"));
+        assertEquals("symbol-test-2", SymbolTable.TRACKS.getName(track));
+    }
+
+    @Test
+    void concurrentInternsGiveOneSymbolEach() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Set<Integer> symbols = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t=0; t<4; t++){
+            futures.add(pool.submit(() -> {
+                for (int i=0; i<2000; i++) symbols.add(SymbolTable.ARTISTS.intern("symbol-test-artist-" + i));
+            }));
+        }
+
+        for (Future<?> f : futures) f.get();
+        pool.shutdown();
+
+        assertEquals(2000, symbols.size());
+        for (int i=0; i<2000; i++){
+            int symbol = SymbolTable.ARTISTS.lookup("symbol-test-artist-" + i);
+            assertEquals("symbol-test-artist-" + i, SymbolTable.ARTISTS.getName(symbol));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package cs10.apps.web.statsforspotify.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedSamplerTest {
+    private static final int DRAWS = 20000;
+
+    private int[] countSamples(WeightedSampler sampler, long seed){
+        Random random = new Random();
+        random.setSeed(seed);
+
+        int[] counts = new int[sampler.size()];
+        for (int i=0; i<DRAWS; i++) counts[sampler.sample(random)]++;
+        return counts;
+    }
+
+    @Test
+    void picksAreProportionalToTheWeights(){
+        WeightedSampler sampler = new WeightedSampler();
+        sampler.add(1);
+        sampler.add(2);
+        sampler.add(7);
+
+        int[] counts = countSamples(sampler, 17);
+        assertEquals(0.1, counts[0] / (double) DRAWS, 0.02);
+        assertEquals(0.2, counts[1] / (double) DRAWS, 0.02);
+        assertEquals(0.7, counts[2] / (double) DRAWS, 0.02);
+    }
+
+    @Test
+    void emptyWeightsAreNeverPicked(){
+        WeightedSampler sampler = new WeightedSampler();
+        sampler.add(0);
+        sampler.add(1);
+        sampler.add(-5);
+        sampler.add(Double.NaN);
+        sampler.add(3);
+        sampler.add(0);
+
+        int[] counts = countSamples(sampler, 3);
+        assertEquals(0, counts[0]);
+        assertEquals(0, counts[2]);
+        assertEquals(0, counts[3]);
+        assertEquals(0, counts[5]);
+        assertEquals(DRAWS, counts[1] + counts[4]);
+    }
+
+    @Test
+    void changedWeightsAreUsedInTheNextPick(){
+        WeightedSampler sampler = new WeightedSampler();
+        for (int i=0; i<5; i++) sampler.add(1);
+        sampler.set(2, 0);
+        sampler.set(4, 6);
+
+        int[] counts = countSamples(sampler, 99);
+        assertEquals(0, counts[2]);
+        assertEquals(6 / 9.0, counts[4] / (double) DRAWS, 0.02);
+        assertEquals(9, sampler.getTotal(), 1e-9);
+    }
+
+    @Test
+    void growingKeepsTheWeights(){
+        WeightedSampler sampler = new WeightedSampler(1);
+        double sum = 0;
+
+        for (int i=0; i<100; i++){
+            assertEquals(i, sampler.add(i % 7));
+            sum += i % 7;
+        }
+
+        assertEquals(100, sampler.size());
+        assertEquals(sum, sampler.getTotal(), 1e-9);
+        assertEquals(5, sampler.getWeight(40), 0);
+    }
+
+    @Test
+    void sameSeedGivesTheSamePicks(){
+        WeightedSampler sampler = new WeightedSampler();
+        for (int i=1; i<=20; i++) sampler.add(i);
+
+        assertArrayEquals(countSamples(sampler, 42), countSamples(sampler, 42));
+    }
+
+    @Test
+    void withoutWeightsThePickIsUniform(){
+        WeightedSampler sampler = new WeightedSampler();
+        assertEquals(-1, sampler.sample(new Random(1)));
+
+        for (int i=0; i<4; i++) sampler.add(0);
+        int[] counts = countSamples(sampler, 5);
+        for (int count : counts) assertEquals(0.25, count / (double) DRAWS, 0.02);
+    }
+}